@@ -0,0 +1,88 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * ListUtil 分批、合并：按需分批 vs 一次生成所有批次，预先分配 / 只读视图 vs 原来的 merge
+ * 内存占用用 -prof gc 看 gc.alloc.rate.norm
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private List<Long> ids;
+
+    private List<Long> a;
+
+    private List<Long> b;
+
+    private List<Long> c;
+
+    @Setup
+    public void setup() {
+        ids = LongStream.range(0, size).boxed().collect(Collectors.toList());
+        a = new ArrayList<>(ids.subList(0, size / 2));
+        b = new ArrayList<>(ids.subList(size / 2, size * 3 / 4));
+        c = new ArrayList<>(ids.subList(size * 3 / 4, size));
+    }
+
+    @Benchmark
+    public void split(Blackhole bh) {
+        for (List<Long> batch : ListUtil.split(ids, batchSize)) {
+            bh.consume(batch.get(0));
+        }
+    }
+
+    @Benchmark
+    public void batches(Blackhole bh) {
+        for (List<Long> batch : ListUtil.batches(ids, batchSize)) {
+            bh.consume(batch.get(0));
+        }
+    }
+
+    @Benchmark
+    public List<Long> mergeLegacy() {
+        List<Long> r = new ArrayList<>();
+        r.addAll(a);
+        r.addAll(b);
+        r.addAll(c);
+        return r;
+    }
+
+    @Benchmark
+    public List<Long> merge() {
+        return ListUtil.merge(a, b, c);
+    }
+
+    @Benchmark
+    public List<Long> concat() {
+        return ListUtil.concat(a, b, c);
+    }
+
+    @Benchmark
+    public long concatIterate() {
+        long sum = 0;
+        for (Long id : ListUtil.concat(a, b, c)) {
+            sum += id;
+        }
+        return sum;
+    }
+}
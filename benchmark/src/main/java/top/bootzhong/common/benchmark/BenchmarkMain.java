@@ -0,0 +1,28 @@
+package top.bootzhong.common.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口，参数和 org.openjdk.jmh.Main 相同
+ * 没有指定 -rf 时结果同时输出到 jmh-result.json，方便不同版本之间比较
+ * @author bootzhong
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        if (!argList.contains("-rf") && !argList.contains("-h") && !argList.contains("-l")) {
+            argList.add("-rf");
+            argList.add("json");
+            if (!argList.contains("-rff")) {
+                argList.add("-rff");
+                argList.add("jmh-result.json");
+            }
+        }
+        org.openjdk.jmh.Main.main(argList.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,25 @@
+package top.bootzhong.common.benchmark;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 客户
+ * @author bootzhong
+ */
+@Getter
+public class Customer {
+    private final Long id;
+
+    private final String name;
+
+    @Setter
+    private List<Order> orders;
+
+    public Customer(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
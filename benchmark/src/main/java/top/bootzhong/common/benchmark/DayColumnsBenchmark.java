@@ -0,0 +1,102 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.DayColumns;
+import top.bootzhong.common.util.DayNumbers;
+import top.bootzhong.common.util.TimeUtil;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整列转换 vs 逐个调用 TimeUtil
+ * sorted：时间按顺序递增，每天约 100 条；random：同样的时间打乱顺序，几乎每条都换天
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DayColumnsBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"sorted", "random"})
+    public String order;
+
+    private long[] epochMillis;
+
+    private int[] days;
+
+    @Setup
+    public void setup() {
+        epochMillis = new long[size];
+        long start = 1609459200000L;
+        for (int i = 0; i < size; i++) {
+            epochMillis[i] = start + i * 864_000L;
+        }
+        if ("random".equals(order)) {
+            Random random = new Random(42);
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                long t = epochMillis[i];
+                epochMillis[i] = epochMillis[j];
+                epochMillis[j] = t;
+            }
+        }
+        days = DayColumns.toDays(epochMillis);
+    }
+
+    @Benchmark
+    public int[] toDays() {
+        return DayColumns.toDays(epochMillis);
+    }
+
+    @Benchmark
+    public int[] toDaysParallel() {
+        return DayColumns.toDays(epochMillis, TimeZone.getDefault(), true);
+    }
+
+    @Benchmark
+    public int[] toDaysDirect() {
+        TimeZone zone = TimeZone.getDefault();
+        int[] result = new int[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++) {
+            result[i] = DayNumbers.toDay(epochMillis[i], zone);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] toDaysPerElement() {
+        int[] result = new int[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++) {
+            result[i] = TimeUtil.toDay(new Date(epochMillis[i]));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String[] toDayStrings() {
+        return DayColumns.toDayStrings(days);
+    }
+
+    @Benchmark
+    public byte[] toDayBytes() {
+        return DayColumns.toDayBytes(days);
+    }
+
+    @Benchmark
+    public String[] toDayStringsPerElement() {
+        String[] result = new String[days.length];
+        for (int i = 0; i < days.length; i++) {
+            result[i] = TimeUtil.toDayString(days[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package top.bootzhong.common.benchmark;
+
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.DayNumbers;
+import top.bootzhong.common.util.TimeUtil;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 天编号、月编号 直接计算 vs 原来的 SimpleDateFormat 来回转换
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DayNumberBenchmark {
+    private static final int SIZE = 1024;
+
+    private final Date[] dates = new Date[SIZE];
+
+    private final int[] days = new int[SIZE];
+
+    private int i;
+
+    @Setup
+    public void setup() {
+        long start = 1609459200000L;
+        for (int j = 0; j < SIZE; j++) {
+            dates[j] = new Date(start + j * 3600_000L * 7);
+            days[j] = DayNumbers.toDay(dates[j]);
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public int toDayInt() {
+        return TimeUtil.toDayInt(dates[next()]);
+    }
+
+    @Benchmark
+    public Integer toDay() {
+        return TimeUtil.toDay(dates[next()]);
+    }
+
+    @Benchmark
+    public Integer toDayLegacy() {
+        return Integer.valueOf(new SimpleDateFormat("yyyyMMdd").format(dates[next()]));
+    }
+
+    @Benchmark
+    public int toMonInt() {
+        return TimeUtil.toMonInt(dates[next()]);
+    }
+
+    @Benchmark
+    public Integer toMonLegacy() {
+        return Integer.valueOf(new SimpleDateFormat("yyyyMM").format(dates[next()]));
+    }
+
+    @Benchmark
+    public long parseDayMillis() {
+        return DayNumbers.parseDay(days[next()]);
+    }
+
+    @Benchmark
+    public Date parseDay() {
+        return TimeUtil.parseDay(days[next()]);
+    }
+
+    @Benchmark
+    @SneakyThrows
+    public Date parseDayLegacy() {
+        return new SimpleDateFormat("yyyyMMdd").parse(String.valueOf(days[next()]));
+    }
+}
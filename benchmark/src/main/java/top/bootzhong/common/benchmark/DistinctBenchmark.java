@@ -0,0 +1,88 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ListUtil.isEmpty、distinct、distinctBy vs 原来的 Stream 实现，100万
+ * dup 为 0 时没有重复，distinct 直接返回原来的 list
+ * 内存占用用 -prof gc 看 gc.alloc.rate.norm
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistinctBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    /**
+     * 重复元素的百分比
+     */
+    @Param({"0", "10"})
+    public int dup;
+
+    private List<String> codes;
+
+    private List<Order> orders;
+
+    /**
+     * 前一半是 null
+     */
+    private List<String> leadingNulls;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20210828L);
+        codes = new ArrayList<>(size);
+        int unique = size - size * dup / 100;
+        for (int i = 0; i < size; i++) {
+            codes.add("code-" + (i < unique ? i : random.nextInt(unique)));
+        }
+        Collections.shuffle(codes, random);
+        orders = Fixtures.orders(size);
+        leadingNulls = new ArrayList<>(Collections.nCopies(size / 2, null));
+        leadingNulls.addAll(codes.subList(0, size / 2));
+    }
+
+    @Benchmark
+    public boolean isEmpty() {
+        return ListUtil.isEmpty(leadingNulls);
+    }
+
+    @Benchmark
+    public boolean isEmptyLegacy() {
+        return leadingNulls.stream().allMatch(e -> e == null);
+    }
+
+    @Benchmark
+    public List<String> distinct() {
+        return ListUtil.distinct(codes);
+    }
+
+    @Benchmark
+    public List<String> distinctLegacy() {
+        if (!ListUtil.isEmpty(codes)) {
+            return codes.stream().distinct().collect(Collectors.toList());
+        }
+        return codes;
+    }
+
+    @Benchmark
+    public List<Order> distinctBy() {
+        return ListUtil.distinctBy(orders, Order::getCustomerId);
+    }
+
+    @Benchmark
+    public List<Order> distinctByStream() {
+        Set<Long> seen = new HashSet<>();
+        return orders.stream().filter(o -> seen.add(o.getCustomerId())).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * ListUtil.hasDuplicate / isUnique 组合key vs 原来的字符串拼接
+ * 分配情况用 -prof gc 查看 gc.alloc.rate.norm
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Order> orders;
+
+    private List<Order> sameCustomer;
+
+    private Function<Order, Object>[] oneKey;
+
+    private Function<Order, Object>[] twoKeys;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        //id 唯一，没有重复，要完整扫一遍
+        orders = Fixtures.orders(size);
+        sameCustomer = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sameCustomer.add(new Order(i, 1L));
+        }
+        oneKey = new Function[]{(Function<Order, Object>) Order::getId};
+        twoKeys = new Function[]{(Function<Order, Object>) Order::getId, (Function<Order, Object>) Order::getCustomerId};
+    }
+
+    @Benchmark
+    public boolean hasDuplicateOneKey() {
+        return ListUtil.hasDuplicate(orders, oneKey);
+    }
+
+    @Benchmark
+    public boolean hasDuplicateOneKeyLegacy() {
+        return legacyHasDuplicate(orders, oneKey);
+    }
+
+    @Benchmark
+    public boolean hasDuplicateTwoKeys() {
+        return ListUtil.hasDuplicate(orders, twoKeys);
+    }
+
+    @Benchmark
+    public boolean hasDuplicateTwoKeysLegacy() {
+        return legacyHasDuplicate(orders, twoKeys);
+    }
+
+    @Benchmark
+    public boolean isUnique() {
+        return ListUtil.isUnique(sameCustomer, Order::getCustomerId);
+    }
+
+    @Benchmark
+    public boolean isUniqueLegacy() {
+        return legacyIsUnique(sameCustomer, Order::getCustomerId);
+    }
+
+    /**
+     * 原来ListUtil.hasDuplicate的实现
+     */
+    static <T> boolean legacyHasDuplicate(Collection<T> col, Function<T, Object>[] funs) {
+        HashMap<String, String> map = new HashMap<>(funs.length);
+        for (T c : col) {
+            StringBuilder key = new StringBuilder();
+            for (Function<T, Object> f : funs) {
+                key.append(f.apply(c));
+            }
+            if (map.get(key.toString()) != null) {
+                return true;
+            } else {
+                map.put(key.toString(), "-1");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 原来ListUtil.isUnique的实现
+     */
+    @SafeVarargs
+    static <T> boolean legacyIsUnique(Collection<T> col, Function<T, Object>... funs) {
+        Set<String> set = new HashSet<>();
+        for (T c : col) {
+            StringBuilder key = new StringBuilder();
+            for (Function<T, Object> f : funs) {
+                key.append(f.apply(c));
+            }
+            set.add(key.toString());
+            if (set.size() > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
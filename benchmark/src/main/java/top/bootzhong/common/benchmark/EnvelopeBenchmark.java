@@ -0,0 +1,87 @@
+package top.bootzhong.common.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.converter.CommonResponseHttpMessageConverter;
+import top.bootzhong.common.model.entity.CommonResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommonResponse 序列化：预编码外层字段 vs Jackson 反射序列化整个对象
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvelopeBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CommonResponseHttpMessageConverter converter = new CommonResponseHttpMessageConverter(objectMapper);
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    private CommonResponse<String> small;
+
+    private CommonResponse<List<Customer>> page;
+
+    private CommonResponse<Object> serviceError;
+
+    @Setup
+    public void setup() {
+        if (!converter.isEnvelopeEnabled()) {
+            throw new IllegalStateException("envelope writer disabled");
+        }
+        small = CommonResponse.success("ok");
+        page = CommonResponse.success(Fixtures.customers(20), 1, 20, 1000);
+        serviceError = CommonResponse.serviceException("参数错误");
+    }
+
+    @Benchmark
+    public int smallEnvelope() throws IOException {
+        out.reset();
+        converter.writeEnvelope(small, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int smallJackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, small);
+        return out.size();
+    }
+
+    @Benchmark
+    public int pageEnvelope() throws IOException {
+        out.reset();
+        converter.writeEnvelope(page, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int pageJackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int serviceErrorEnvelope() throws IOException {
+        out.reset();
+        converter.writeEnvelope(serviceError, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int serviceErrorJackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, serviceError);
+        return out.size();
+    }
+}
@@ -0,0 +1,54 @@
+package top.bootzhong.common.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.advice.ErrorRenderProperties;
+import top.bootzhong.common.advice.ErrorRenderer;
+import top.bootzhong.common.advice.GlobalControllerAdvice;
+import top.bootzhong.common.advice.ResponseWrapPolicy;
+import top.bootzhong.common.advice.ResponseWrapProperties;
+import top.bootzhong.common.exception.ServiceException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GlobalControllerAdvice 处理异常的成本（不含抛出）
+ * serverError 在限流窗口内只有前几次输出完整堆栈和日志，其余只返回异常信息
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandleBenchmark {
+    /**
+     * true：响应带堆栈；false：只有异常类型和信息
+     */
+    @Param({"true", "false"})
+    public boolean stackTrace;
+
+    private GlobalControllerAdvice advice;
+
+    private final IllegalStateException serverError = new IllegalStateException("boom");
+
+    private final ServiceException serviceError = new ServiceException(401, "参数错误");
+
+    @Setup
+    public void setup() {
+        ErrorRenderProperties properties = new ErrorRenderProperties();
+        properties.setStackTrace(stackTrace);
+        advice = new GlobalControllerAdvice(new ErrorRenderer(properties), new ResponseWrapPolicy(new ResponseWrapProperties()), new ObjectMapper());
+    }
+
+    @Benchmark
+    public Object serverError() {
+        return advice.exceptionHandle(serverError);
+    }
+
+    @Benchmark
+    public Object serviceError() {
+        return advice.serviceExceptionHandle(serviceError);
+    }
+}
@@ -0,0 +1,42 @@
+package top.bootzhong.common.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的数据
+ * @author bootzhong
+ */
+final class Fixtures {
+    private static final long SEED = 20210828L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * 订单，customerId 落在 [0, size * 3 / 4) 之间，打乱顺序
+     */
+    static List<Order> orders(int size) {
+        Random random = new Random(SEED);
+        int customerRange = Math.max(1, size * 3 / 4);
+        List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order(i, (long) random.nextInt(customerRange)));
+        }
+        return orders;
+    }
+
+    /**
+     * 客户，id 为 [0, size)，打乱顺序
+     */
+    static List<Customer> customers(int size) {
+        List<Customer> customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(new Customer((long) i, "customer-" + i));
+        }
+        Collections.shuffle(customers, new Random(SEED));
+        return customers;
+    }
+}
@@ -0,0 +1,64 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListUtil.matchAndSetList 一对多匹配 vs 原来的 matchAndSet(ConsumerMulti) 嵌套循环
+ * 客户数是size的一半，订单按customerId挂到客户上，约一半的客户没有订单
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupJoinBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Order> orders;
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setup() {
+        orders = Fixtures.orders(size);
+        customers = Fixtures.customers(size / 2);
+    }
+
+    @Benchmark
+    public List<Customer> groupJoin() {
+        ListUtil.matchAndSetList(customers, orders, Customer::getId, Order::getCustomerId, Customer::setOrders);
+        return customers;
+    }
+
+    @Benchmark
+    public List<Customer> groupJoinImmutableEmpty() {
+        ListUtil.matchAndSetList(customers, orders, Customer::getId, Order::getCustomerId, Customer::setOrders, true);
+        return customers;
+    }
+
+    /**
+     * 10万时每次调用十几秒，JMH 每轮至少调用一次，默认的预热、测量次数下要跑两三分钟
+     */
+    @Benchmark
+    public List<Customer> nestedLoop() {
+        for (Customer c : customers) {
+            c.setOrders(new ArrayList<>());
+        }
+        ListUtil.matchAndSet(customers, orders, (c, o) -> {
+            if (Objects.equals(c.getId(), o.getCustomerId())) {
+                c.getOrders().add(o);
+            }
+        });
+        return customers;
+    }
+}
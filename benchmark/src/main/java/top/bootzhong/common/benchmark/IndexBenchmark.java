@@ -0,0 +1,63 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ListUtil 建索引、分组、计数：long 专用的开放寻址 Map vs Stream + HashMap
+ * 内存占用用 -prof gc 看 gc.alloc.rate.norm
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        orders = Fixtures.orders(size);
+    }
+
+    @Benchmark
+    public Object indexByLong() {
+        return ListUtil.indexByLong(orders, Order::getId);
+    }
+
+    @Benchmark
+    public Map<Long, Order> indexStream() {
+        return orders.stream().collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a));
+    }
+
+    @Benchmark
+    public Object groupByLong() {
+        return ListUtil.groupByLong(orders, Order::getCustomerId);
+    }
+
+    @Benchmark
+    public Map<Long, List<Order>> groupByStream() {
+        return orders.stream().collect(Collectors.groupingBy(Order::getCustomerId));
+    }
+
+    @Benchmark
+    public Object countByLong() {
+        return ListUtil.countByLong(orders, Order::getCustomerId);
+    }
+
+    @Benchmark
+    public Map<Long, Long> countByStream() {
+        return orders.stream().collect(Collectors.groupingBy(Order::getCustomerId, Collectors.counting()));
+    }
+}
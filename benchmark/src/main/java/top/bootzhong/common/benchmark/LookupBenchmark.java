@@ -0,0 +1,118 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.ListUtil;
+import top.bootzhong.common.util.LongObjectMap;
+import top.bootzhong.common.util.SortedLongIndex;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只读参考数据按 long key 查询：SortedLongIndex vs LongObjectMap vs HashMap<Long, R>
+ * keys=dense 时 id 连续（插值查找），sparse 时 id 随机（二分查找），每次查询的 key 一半存在
+ * 内存占用（100万，压缩指针，GC 之后的堆占用）：HashMap 约 40MB，LongObjectMap 约 25MB，SortedLongIndex 约 12MB
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"dense", "sparse"})
+    public String keys;
+
+    private Map<Long, Customer> hashMap;
+
+    private LongObjectMap<Customer> longObjectMap;
+
+    private SortedLongIndex<Customer> sortedIndex;
+
+    private Long[] probes;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20210828L);
+        List<Customer> customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = "dense".equals(keys) ? i : random.nextLong() >>> 1;
+            customers.add(new Customer(id, "customer-" + i));
+        }
+        Collections.shuffle(customers, random);
+        hashMap = ListUtil.index(customers, Customer::getId);
+        longObjectMap = ListUtil.indexByLong(customers, Customer::getId);
+        sortedIndex = ListUtil.sortedIndexByLong(customers, Customer::getId);
+
+        probes = new Long[PROBES];
+        orders = new ArrayList<>(PROBES);
+        for (int i = 0; i < PROBES; i++) {
+            Long id = i % 2 == 0 ? customers.get(random.nextInt(size)).getId() : -1L - random.nextInt(size);
+            probes[i] = id;
+            orders.add(new Order(i, id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int hashMap() {
+        int found = 0;
+        for (Long id : probes) {
+            if (hashMap.get(id) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int longObjectMap() {
+        int found = 0;
+        for (Long id : probes) {
+            if (longObjectMap.get(id) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int sortedIndex() {
+        int found = 0;
+        for (Long id : probes) {
+            if (sortedIndex.get(id) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public List<Order> matchAndSetSortedIndex() {
+        ListUtil.matchAndSet(orders, Order::getCustomerId, sortedIndex, (o, c) -> o.setCustomerName(c.getName()));
+        return orders;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public List<Order> matchAndSetHashMap() {
+        for (Order o : orders) {
+            Customer c = hashMap.get(o.getCustomerId());
+            if (c != null) {
+                o.setCustomerName(c.getName());
+            }
+        }
+        return orders;
+    }
+}
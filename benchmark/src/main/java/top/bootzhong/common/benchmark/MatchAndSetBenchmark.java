@@ -0,0 +1,70 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import top.bootzhong.common.util.ListUtil;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * ListUtil.matchAndSet 哈希匹配 vs 原来的嵌套循环
+ * 订单数是size，客户数是size的一半，三分之一的订单没有对应客户
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchAndSetBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Order> orders;
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setup() {
+        orders = Fixtures.orders(size);
+        customers = Fixtures.customers(size / 2);
+    }
+
+    @Benchmark
+    public void hashJoin(Blackhole bh) {
+        ListUtil.matchAndSet(orders, customers, Order::getCustomerId, Customer::getId, (o, c) -> bh.consume(c));
+    }
+
+    @Benchmark
+    public void parallelHashJoin(Blackhole bh) {
+        ListUtil.parallelMatchAndSet(orders, customers, Order::getCustomerId, Customer::getId, (o, c) -> bh.consume(c));
+    }
+
+    /**
+     * 10万时每次调用十几秒，JMH 每轮至少调用一次，默认的预热、测量次数下要跑两三分钟
+     */
+    @Benchmark
+    public void nestedLoop(Blackhole bh) {
+        nestedLoop(orders, customers, Order::getCustomerId, Customer::getId, (o, c) -> bh.consume(c));
+    }
+
+    /**
+     * 原来ListUtil.matchAndSet的实现
+     */
+    static <T, R, M> void nestedLoop(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T, R> fs) {
+        for (T a : t) {
+            for (R b : r) {
+                if (ft.apply(a) != null && ft.apply(a).equals(fr.apply(b))) {
+                    fs.accept(a, b);
+                    break;
+                }
+            }
+        }
+    }
+}
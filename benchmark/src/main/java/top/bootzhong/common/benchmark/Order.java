@@ -0,0 +1,23 @@
+package top.bootzhong.common.benchmark;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 订单
+ * @author bootzhong
+ */
+@Getter
+@Setter
+public class Order {
+    private long id;
+
+    private Long customerId;
+
+    private String customerName;
+
+    public Order(long id, Long customerId) {
+        this.id = id;
+        this.customerId = customerId;
+    }
+}
@@ -0,0 +1,63 @@
+package top.bootzhong.common.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.exception.ServiceException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServiceException 抛出、捕获的成本
+ * depth 模拟 Spring MVC 调用链的栈深度
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceExceptionBenchmark {
+    private static final ServiceException NOT_FOUND = ServiceException.constant(404, "数据不存在");
+
+    @Param({"20", "150"})
+    public int depth;
+
+    @Benchmark
+    public String withStackTrace() {
+        return throwAndCatch(depth, 0);
+    }
+
+    @Benchmark
+    public String stackless() {
+        return throwAndCatch(depth, 1);
+    }
+
+    @Benchmark
+    public String constant() {
+        return throwAndCatch(depth, 2);
+    }
+
+    private static String throwAndCatch(int depth, int mode) {
+        try {
+            call(depth, mode);
+            return null;
+        } catch (ServiceException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static void call(int depth, int mode) {
+        if (depth > 0) {
+            call(depth - 1, mode);
+            return;
+        }
+        switch (mode) {
+            case 0:
+                throw new ServiceException("参数错误", false);
+            case 1:
+                throw new ServiceException("参数错误", true);
+            default:
+                throw NOT_FOUND;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package top.bootzhong.common.benchmark;
+
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.*;
+import top.bootzhong.common.util.TimeUtil;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimeUtil 字符串格式化、解析的来回转换 vs 每次 new SimpleDateFormat
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeUtilBenchmark {
+    private static final int SIZE = 1024;
+
+    private final Date[] dates = new Date[SIZE];
+
+    private final String[] dayStrings = new String[SIZE];
+
+    private int i;
+
+    @Setup
+    public void setup() {
+        long start = 1609459200000L;
+        for (int j = 0; j < SIZE; j++) {
+            dates[j] = new Date(start + j * 3600_000L * 7);
+            dayStrings[j] = TimeUtil.toDayString(dates[j]);
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public Date dayStringRoundTrip() {
+        return TimeUtil.parseDay(TimeUtil.toDayString(dates[next()]));
+    }
+
+    @Benchmark
+    @SneakyThrows
+    public Date dayStringRoundTripLegacy() {
+        Date date = dates[next()];
+        return new SimpleDateFormat("yyyy-MM-dd").parse(new SimpleDateFormat("yyyy-MM-dd").format(date));
+    }
+
+    @Benchmark
+    public Date monStringRoundTrip() {
+        return TimeUtil.parseMon(TimeUtil.toMonString(dates[next()]));
+    }
+
+    @Benchmark
+    public Date dayIntRoundTrip() {
+        return TimeUtil.parseDay(TimeUtil.toDayInt(dates[next()]));
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return TimeUtil.toString(dates[next()], "yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Benchmark
+    public String formatDateTimeLegacy() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(dates[next()]);
+    }
+
+    @Benchmark
+    public Date parseDayString() {
+        return TimeUtil.parseDay(dayStrings[next()]);
+    }
+
+    @Benchmark
+    public String lastDayStringOfMonth() {
+        return TimeUtil.lastDayStringOfMonth(dates[next()]);
+    }
+
+    @Benchmark
+    public Date firstDayOfMonth() {
+        return TimeUtil.firstDayOfMonth(dates[next()]);
+    }
+}
@@ -0,0 +1,116 @@
+package top.bootzhong.common.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import top.bootzhong.common.advice.ErrorRenderProperties;
+import top.bootzhong.common.advice.ErrorRenderer;
+import top.bootzhong.common.advice.GlobalControllerAdvice;
+import top.bootzhong.common.advice.ResponseWrapPolicy;
+import top.bootzhong.common.advice.ResponseWrapProperties;
+import top.bootzhong.common.converter.CommonResponseHttpMessageConverter;
+import top.bootzhong.common.exception.ServiceException;
+import top.bootzhong.common.model.entity.CommonResponse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 通过 MockMvc 走完整的 Spring MVC 流程：返回值包装、异常处理、CommonResponse 序列化
+ * converter=envelope 使用 CommonResponseHttpMessageConverter，jackson 使用默认的 MappingJackson2HttpMessageConverter
+ * @author bootzhong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebMvcBenchmark {
+    @Param({"envelope", "jackson"})
+    public String converter;
+
+    private MockMvc mvc;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpMessageConverter<?> json = "envelope".equals(converter)
+                ? new CommonResponseHttpMessageConverter(objectMapper)
+                : new MappingJackson2HttpMessageConverter(objectMapper);
+        GlobalControllerAdvice advice = new GlobalControllerAdvice(new ErrorRenderer(new ErrorRenderProperties()),
+                new ResponseWrapPolicy(new ResponseWrapProperties()), objectMapper);
+        mvc = MockMvcBuilders.standaloneSetup(new BenchmarkController())
+                .setControllerAdvice(advice)
+                .setMessageConverters(new StringHttpMessageConverter(), json)
+                .build();
+        //确认返回值确实被包装
+        String body = call("/customer").getResponse().getContentAsString();
+        if (!body.contains("\"success\":true")) {
+            throw new IllegalStateException("response not wrapped: " + body);
+        }
+    }
+
+    private MvcResult call(String url) throws Exception {
+        return mvc.perform(get(url)).andReturn();
+    }
+
+    @Benchmark
+    public int customer() throws Exception {
+        return call("/customer").getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int page() throws Exception {
+        return call("/page").getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int commonResponse() throws Exception {
+        return call("/commonResponse").getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int serviceException() throws Exception {
+        return call("/serviceException").getResponse().getContentLength();
+    }
+
+    @RestController
+    public static class BenchmarkController {
+        private static final ServiceException NOT_FOUND = ServiceException.constant(404, "数据不存在");
+
+        private final Customer customer = new Customer(1L, "customer-1");
+
+        private final List<Customer> customers = Fixtures.customers(20);
+
+        @GetMapping("/customer")
+        public Customer customer() {
+            return customer;
+        }
+
+        @GetMapping("/page")
+        public CommonResponse<List<Customer>> page() {
+            return CommonResponse.success(customers, 1, 20, 1000);
+        }
+
+        @GetMapping("/commonResponse")
+        public CommonResponse<List<Long>> commonResponse() {
+            return CommonResponse.success(Arrays.asList(1L, 2L, 3L));
+        }
+
+        @GetMapping("/serviceException")
+        public Customer serviceException() {
+            throw NOT_FOUND;
+        }
+    }
+}
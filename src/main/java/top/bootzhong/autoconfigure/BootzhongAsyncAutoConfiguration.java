@@ -0,0 +1,32 @@
+package top.bootzhong.autoconfigure;
+
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import top.bootzhong.common.async.AsyncExecutorProperties;
+import top.bootzhong.common.async.AsyncExecutors;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 异步执行线程池
+ * 替换 Spring Boot 默认的 applicationTaskExecutor，Spring MVC 的异步请求和 @Async 都使用它
+ * 已经定义了 Executor 时不生效
+ * @author bootzhong
+ */
+@Configuration(proxyBeanMethods = false)
+@AutoConfigureBefore(TaskExecutionAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "bootzhong.async", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(AsyncExecutorProperties.class)
+public class BootzhongAsyncAutoConfiguration {
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    @ConditionalOnMissingBean(Executor.class)
+    public AsyncTaskExecutor applicationTaskExecutor(AsyncExecutorProperties properties) {
+        return AsyncExecutors.create(properties);
+    }
+}
@@ -0,0 +1,24 @@
+package top.bootzhong.autoconfigure;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import top.bootzhong.common.cache.LookupCacheManager;
+import top.bootzhong.common.cache.LookupCacheProperties;
+
+/**
+ * 查询缓存，bootzhong.cache.enabled=true 时生效
+ * @author bootzhong
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bootzhong.cache", name = "enabled")
+@EnableConfigurationProperties(LookupCacheProperties.class)
+public class BootzhongCacheAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    public LookupCacheManager lookupCacheManager(LookupCacheProperties properties) {
+        return new LookupCacheManager(properties);
+    }
+}
@@ -0,0 +1,93 @@
+package top.bootzhong.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import top.bootzhong.common.advice.ErrorRenderProperties;
+import top.bootzhong.common.advice.ErrorRenderer;
+import top.bootzhong.common.advice.GlobalControllerAdvice;
+import top.bootzhong.common.advice.ResponseWrapPolicy;
+import top.bootzhong.common.advice.ResponseWrapProperties;
+import top.bootzhong.common.converter.CommonResponseHttpMessageConverter;
+import top.bootzhong.common.exception.ServiceException;
+import top.bootzhong.common.exception.ServiceExceptionProperties;
+import top.bootzhong.common.metrics.MicrometerResponseMetrics;
+import top.bootzhong.common.metrics.ResponseMetrics;
+
+/**
+ * 统一响应包装、异常处理、CommonResponse 的 JSON 输出
+ * 不再需要扫描 top.bootzhong.common，各个 bean 都可以自己定义来替换
+ * 自动配置放在 top.bootzhong.common 之外，仍然扫描 top.bootzhong.common 的项目不会把它当成普通配置提前加载
+ * 有 Micrometer 的 MeterRegistry 时记录指标，见 MicrometerResponseMetrics，bootzhong.metrics.enabled=false 关闭
+ * bootzhong.service-exception.stackless 设置 ServiceException 是否填充堆栈
+ * @author bootzhong
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@AutoConfigureAfter(value = JacksonAutoConfiguration.class,
+        name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@AutoConfigureBefore({HttpMessageConvertersAutoConfiguration.class, WebMvcAutoConfiguration.class})
+@EnableConfigurationProperties({ErrorRenderProperties.class, ResponseWrapProperties.class})
+public class BootzhongWebAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    public ErrorRenderer errorRenderer(ErrorRenderProperties properties) {
+        return new ErrorRenderer(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResponseWrapPolicy responseWrapPolicy(ResponseWrapProperties properties) {
+        return new ResponseWrapPolicy(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GlobalControllerAdvice globalControllerAdvice(ErrorRenderer errorRenderer, ResponseWrapPolicy responseWrapPolicy, ObjectMapper objectMapper,
+                                                         ObjectProvider<ResponseMetrics> metrics) {
+        return new GlobalControllerAdvice(errorRenderer, responseWrapPolicy, objectMapper, metrics);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(ObjectMapper.class)
+    public CommonResponseHttpMessageConverter commonResponseHttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<ResponseMetrics> metrics) {
+        CommonResponseHttpMessageConverter converter = new CommonResponseHttpMessageConverter(objectMapper);
+        converter.setResponseMetrics(metrics.getIfAvailable(() -> ResponseMetrics.NONE));
+        return converter;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "bootzhong.metrics", name = "enabled", matchIfMissing = true)
+    static class MetricsConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        public ResponseMetrics responseMetrics(MeterRegistry registry) {
+            return new MicrometerResponseMetrics(registry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "bootzhong.service-exception", name = "stackless")
+    @EnableConfigurationProperties(ServiceExceptionProperties.class)
+    static class ServiceExceptionConfiguration {
+        ServiceExceptionConfiguration(ServiceExceptionProperties properties) {
+            ServiceException.setStackless(Boolean.TRUE.equals(properties.getStackless()));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package top.bootzhong.common.advice;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 系统异常输出配置
+ * @author bootzhong
+ */
+@Data
+@ConfigurationProperties(prefix = "bootzhong.error")
+public class ErrorRenderProperties {
+    /**
+     * 响应中是否带堆栈，false 时只返回异常类型和信息
+     */
+    private boolean stackTrace = true;
+
+    /**
+     * 响应中每个异常（包括 cause）最多输出的堆栈行数
+     */
+    private int maxStackDepth = 50;
+
+    /**
+     * 响应中错误信息的最大字符数
+     */
+    private int maxLength = 8192;
+
+    /**
+     * 限流窗口
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 同一种异常每个窗口内完整记录日志、输出堆栈的次数，超出的只计数，小于等于0不限制
+     */
+    private int maxPerWindow = 10;
+
+    /**
+     * 最多统计的异常种类数，超出的归到同一类
+     */
+    private int maxSignatures = 1024;
+}
@@ -0,0 +1,242 @@
+package top.bootzhong.common.advice;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 系统异常的日志和响应输出
+ * 1. 响应中的堆栈限制行数和长度，也可以只输出异常类型和信息
+ * 2. 按异常签名（异常类型 + 抛出位置）限流，每个窗口内只完整输出前几次，其余只计数
+ * 3. 窗口结束后把上个窗口被限流的次数打一条汇总日志，summary() 可以查看所有统计
+ *    同一个异常不再出现时，由之后任何一次 render 顺带检查（每个窗口最多一次），把已经结束的窗口的次数打出来
+ * @author bootzhong
+ */
+@Slf4j
+public class ErrorRenderer {
+    static final String OTHER_SIGNATURE = "other";
+
+    private final ErrorRenderProperties properties;
+
+    private final Map<String, SignatureStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 下次检查所有签名的时间
+     */
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public ErrorRenderer(ErrorRenderProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 记录日志并生成响应中的错误信息
+     * @param e 异常
+     * @return 错误信息
+     */
+    public String render(Throwable e) {
+        SignatureStats s = statsOf(e);
+        long now = System.currentTimeMillis();
+        long windowMillis = properties.getWindow().toMillis();
+        long suppressedBefore = s.acquire(now, windowMillis, properties.getMaxPerWindow());
+        if (suppressedBefore > 0) {
+            logSuppressed(s.signature, suppressedBefore);
+        }
+        sweep(now, windowMillis);
+        if (suppressedBefore < 0) {
+            return compact(e);
+        }
+
+        log.error("server error" + e.getMessage(), e);
+        if (!properties.isStackTrace()) {
+            return compact(e);
+        }
+        return "\r\n" + stackTrace(e, properties.getMaxStackDepth(), properties.getMaxLength()) + "\r\n";
+    }
+
+    /**
+     * 各种异常的统计
+     * @return 统计，按总次数倒序
+     */
+    public List<ErrorSummary> summary() {
+        List<ErrorSummary> result = new ArrayList<>(stats.size());
+        for (SignatureStats s : stats.values()) {
+            result.add(s.toSummary());
+        }
+        result.sort((a, b) -> Long.compare(b.getTotal(), a.getTotal()));
+        return result;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * 其它签名已经结束的窗口里被限流的次数，每个窗口最多检查一次，只有一个线程检查
+     */
+    private void sweep(long now, long windowMillis) {
+        long next = nextSweep.get();
+        if (now < next || !nextSweep.compareAndSet(next, now + windowMillis)) {
+            return;
+        }
+        for (SignatureStats s : stats.values()) {
+            long suppressed = s.drain(now, windowMillis);
+            if (suppressed > 0) {
+                logSuppressed(s.signature, suppressed);
+            }
+        }
+    }
+
+    private static void logSuppressed(String signature, long suppressed) {
+        log.warn("server error {} 上个窗口内重复出现，已省略 {} 次", signature, suppressed);
+    }
+
+    /**
+     * 只有异常类型和信息
+     */
+    static String compact(Throwable e) {
+        String msg = e.getMessage();
+        return msg == null ? e.getClass().getName() : e.getClass().getName() + ": " + msg;
+    }
+
+    /**
+     * 输出堆栈，格式和 printStackTrace 相同，每个异常最多 maxDepth 行，堆栈行总长度不超过 maxLength
+     */
+    static String stackTrace(Throwable e, int maxDepth, int maxLength) {
+        StringBuilder sb = new StringBuilder(Math.min(maxLength, 1024));
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        String prefix = "";
+        for (Throwable t = e; t != null && sb.length() < maxLength; t = t.getCause()) {
+            if (!seen.add(t)) {
+                sb.append("\t[CIRCULAR REFERENCE: ").append(t).append("]\n");
+                break;
+            }
+            sb.append(prefix).append(t).append('\n');
+            StackTraceElement[] frames = t.getStackTrace();
+            int depth = Math.min(frames.length, Math.max(maxDepth, 0));
+            if (sb.length() > maxLength) {
+                break;
+            }
+            //超出长度时整行放弃，省略的行数按实际输出的行数计算
+            int written = 0;
+            boolean truncated = false;
+            while (written < depth) {
+                int mark = sb.length();
+                sb.append("\tat ").append(frames[written]).append('\n');
+                if (sb.length() > maxLength) {
+                    sb.setLength(mark);
+                    truncated = true;
+                    break;
+                }
+                written++;
+            }
+            if (frames.length > written) {
+                sb.append("\t... ").append(frames.length - written).append(" more\n");
+            }
+            if (truncated) {
+                return sb.append("\t... (truncated)\n").toString();
+            }
+            prefix = "Caused by: ";
+        }
+        if (sb.length() > maxLength) {
+            sb.setLength(maxLength);
+            sb.append("\n\t... (truncated)\n");
+        }
+        return sb.toString();
+    }
+
+    private SignatureStats statsOf(Throwable e) {
+        String signature = signature(e);
+        SignatureStats s = stats.get(signature);
+        if (s != null) {
+            return s;
+        }
+        if (stats.size() >= properties.getMaxSignatures()) {
+            return stats.computeIfAbsent(OTHER_SIGNATURE, SignatureStats::new);
+        }
+        return stats.computeIfAbsent(signature, SignatureStats::new);
+    }
+
+    /**
+     * 异常类型 + 第一行堆栈
+     */
+    static String signature(Throwable e) {
+        StackTraceElement[] frames = e.getStackTrace();
+        if (frames.length == 0) {
+            return e.getClass().getName();
+        }
+        return e.getClass().getName() + "@" + frames[0];
+    }
+
+    /**
+     * 单个签名的统计和固定窗口限流
+     */
+    private static class SignatureStats {
+        private final String signature;
+
+        private final AtomicLong total = new AtomicLong();
+
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private volatile long lastSeen;
+
+        private long windowStart;
+
+        private int windowCount;
+
+        private long windowSuppressed;
+
+        SignatureStats(String signature) {
+            this.signature = signature;
+        }
+
+        /**
+         * 记一次
+         * @return 小于0：本次被限流；大于0：新窗口开始，上个窗口被限流的次数；0：正常
+         */
+        synchronized long acquire(long now, long windowMillis, int maxPerWindow) {
+            total.incrementAndGet();
+            lastSeen = now;
+            long rolledSuppressed = 0;
+            if (now - windowStart >= windowMillis) {
+                rolledSuppressed = windowSuppressed;
+                windowStart = now;
+                windowCount = 0;
+                windowSuppressed = 0;
+            }
+            if (maxPerWindow > 0 && windowCount >= maxPerWindow) {
+                windowSuppressed++;
+                suppressed.incrementAndGet();
+                return -1;
+            }
+            windowCount++;
+            return rolledSuppressed;
+        }
+
+        /**
+         * 窗口已经结束时取出被限流的次数，之后 acquire 开始新窗口时不再重复输出
+         */
+        synchronized long drain(long now, long windowMillis) {
+            if (windowSuppressed == 0 || now - windowStart < windowMillis) {
+                return 0;
+            }
+            long result = windowSuppressed;
+            windowSuppressed = 0;
+            return result;
+        }
+
+        ErrorSummary toSummary() {
+            return new ErrorSummary(signature, total.get(), suppressed.get(), lastSeen);
+        }
+    }
+}
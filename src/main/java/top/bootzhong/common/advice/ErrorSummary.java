@@ -0,0 +1,32 @@
+package top.bootzhong.common.advice;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 某一种系统异常的统计
+ * @author bootzhong
+ */
+@Getter
+@AllArgsConstructor
+public class ErrorSummary {
+    /**
+     * 异常签名：异常类型 + 抛出位置
+     */
+    private final String signature;
+
+    /**
+     * 总次数
+     */
+    private final long total;
+
+    /**
+     * 被限流、没有完整输出的次数
+     */
+    private final long suppressed;
+
+    /**
+     * 最后一次出现的时间戳
+     */
+    private final long lastSeen;
+}
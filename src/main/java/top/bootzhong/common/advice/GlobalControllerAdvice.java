@@ -1,37 +1,106 @@
 package top.bootzhong.common.advice;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 import top.bootzhong.common.exception.ServiceException;
+import top.bootzhong.common.metrics.ResponseMetrics;
 import top.bootzhong.common.model.entity.CommonResponse;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * 全局拦截器
+ * CompletableFuture、DeferredResult、Callable 等异步返回值在结果返回后同样包装，异常同样由下面的 ExceptionHandler 处理
+ * 包装、异常的统计见 ResponseMetrics
  * @author bootzhong
  */
 @RestControllerAdvice
 @Slf4j
 public class GlobalControllerAdvice implements ResponseBodyAdvice<Object> {
+    private final ErrorRenderer errorRenderer;
+
+    private final ResponseWrapPolicy responseWrapPolicy;
+
+    private final ObjectMapper objectMapper;
+
+    private final ResponseMetrics metrics;
+
+    public GlobalControllerAdvice(){
+        this(new ErrorRenderer(new ErrorRenderProperties()), new ResponseWrapPolicy(new ResponseWrapProperties()), new ObjectMapper());
+    }
+
+    public GlobalControllerAdvice(ErrorRenderer errorRenderer, ResponseWrapPolicy responseWrapPolicy, ObjectMapper objectMapper){
+        this(errorRenderer, responseWrapPolicy, objectMapper, ResponseMetrics.NONE);
+    }
+
+    /**
+     * 扫描 top.bootzhong.common 注册时使用，没有 Micrometer、没有 ResponseMetrics 时不统计
+     */
+    @Autowired
+    public GlobalControllerAdvice(ErrorRenderer errorRenderer, ResponseWrapPolicy responseWrapPolicy, ObjectMapper objectMapper, ObjectProvider<ResponseMetrics> metrics){
+        this(errorRenderer, responseWrapPolicy, objectMapper, metrics.getIfAvailable(() -> ResponseMetrics.NONE));
+    }
+
+    public GlobalControllerAdvice(ErrorRenderer errorRenderer, ResponseWrapPolicy responseWrapPolicy, ObjectMapper objectMapper, ResponseMetrics metrics){
+        this.errorRenderer = errorRenderer;
+        this.responseWrapPolicy = responseWrapPolicy;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
     @Override
     public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-        return true;
+        //每个方法只判断一次，见 ResponseWrapPolicy
+        boolean wrap = responseWrapPolicy.shouldWrap(returnType);
+        if (!wrap && isController(returnType)){
+            metrics.passThrough(returnType.getMethod());
+        }
+        return wrap;
     }
 
     @Override
     public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
-        if (body != null && body.getClass().equals(CommonResponse.class)){
+        //CommonResponse 也在 isPassThrough 中
+        if (responseWrapPolicy.isPassThrough(body)){
+            if (isController(returnType)){
+                metrics.passThrough(returnType.getMethod());
+            }
             return body;
         }
+        if (isController(returnType)){
+            metrics.wrapped(returnType.getMethod());
+        }
+        if (StringHttpMessageConverter.class.isAssignableFrom(selectedConverterType)){
+            //返回 String 的方法已经选定了 StringHttpMessageConverter，只能输出字符串，返回 null 时也一样
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            try {
+                return objectMapper.writeValueAsString(CommonResponse.success(body));
+            } catch (JsonProcessingException e) {
+                throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+            }
+        }
         return CommonResponse.success(body);
     }
 
@@ -39,18 +108,87 @@ public class GlobalControllerAdvice implements ResponseBodyAdvice<Object> {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ResponseBody
     public Object exceptionHandle(Exception e) {
-        //todo
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        e.printStackTrace(pw);
-        log.error("server error" + e.getMessage(), e);
-        return CommonResponse.serverException("\r\n" + sw + "\r\n");
+        return serverExceptionHandle(e);
+    }
+
+    /**
+     * 异步调用里 join/get 抛出的包装异常，按里面的异常处理
+     */
+    @ExceptionHandler({CompletionException.class, ExecutionException.class})
+    @ResponseBody
+    public ResponseEntity<Object> wrappedExceptionHandle(Exception e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof ServiceException){
+            return ResponseEntity.ok(serviceExceptionHandle((ServiceException) cause));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(serverExceptionHandle(cause));
+    }
+
+    @ExceptionHandler({AsyncRequestTimeoutException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public Object asyncTimeoutHandle(AsyncRequestTimeoutException e) {
+        log.warn("async request timeout");
+        metrics.serverException(currentHandler(), e);
+        return CommonResponse.serverException("async request timeout");
+    }
+
+    @ExceptionHandler({TaskRejectedException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public Object taskRejectedHandle(TaskRejectedException e) {
+        //异步线程池和队列都满了，见 AsyncExecutorProperties
+        log.warn("async task rejected: {}", e.getMessage());
+        metrics.serverException(currentHandler(), e);
+        return CommonResponse.serverException("server busy");
     }
 
     @ExceptionHandler({ServiceException.class})
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
     public Object serviceExceptionHandle(Exception e) {
+        metrics.serviceException(currentHandler(), e);
+        if (e instanceof ServiceException){
+            return CommonResponse.serviceException(((ServiceException) e).getCode(), e.getMessage());
+        }
         return CommonResponse.serviceException(e.getMessage());
     }
+
+    /**
+     * 堆栈长度、重复异常的限流见 ErrorRenderer
+     */
+    private Object serverExceptionHandle(Throwable e) {
+        metrics.serverException(currentHandler(), e);
+        long start = System.nanoTime();
+        String msg = errorRenderer.render(e);
+        metrics.errorRendered(System.nanoTime() - start);
+        return CommonResponse.serverException(msg);
+    }
+
+    /**
+     * 本类的 ExceptionHandler 的返回值也会经过 supports、beforeBodyWrite，不统计
+     */
+    private boolean isController(MethodParameter returnType) {
+        return !returnType.getDeclaringClass().isInstance(this);
+    }
+
+    /**
+     * 抛出异常的 Controller 方法
+     */
+    private static Method currentHandler() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null){
+            return null;
+        }
+        Object handler = attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return handler instanceof HandlerMethod ? ((HandlerMethod) handler).getMethod() : null;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable t = e;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null){
+            t = t.getCause();
+        }
+        return t;
+    }
 }
@@ -0,0 +1,172 @@
+package top.bootzhong.common.advice;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import top.bootzhong.common.annotation.IgnoreResponseWrap;
+import top.bootzhong.common.annotation.ResponseWrap;
+import top.bootzhong.common.model.entity.CommonResponse;
+
+import java.io.InputStream;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 判断 Controller 方法的返回值是否需要用 CommonResponse 包装
+ * 每个方法只判断一次，结果缓存，请求时不再做反射
+ * 判断顺序：
+ * 1. 方法上的 IgnoreResponseWrap / ResponseWrap
+ * 2. 类上的 IgnoreResponseWrap / ResponseWrap
+ * 3. 包过滤，见 ResponseWrapProperties
+ * 4. 返回类型（包括 ResponseEntity 的泛型）已经是 CommonResponse、或者是字节、流、文件的不包装
+ * CompletableFuture、DeferredResult、Callable 等异步返回值在结果返回后判断，这时返回类型是它们的泛型
+ * @author bootzhong
+ */
+public class ResponseWrapPolicy {
+    private static final Class<?>[] PASS_THROUGH_TYPES = {
+            CommonResponse.class, byte[].class, Resource.class, InputStream.class, StreamingResponseBody.class
+    };
+
+    private final ResponseWrapProperties properties;
+
+    /**
+     * 不能用传入的 MethodParameter 做 key：异步结果的 ConcurrentResultMethodParameter 持有返回值，
+     * ReturnValueMethodParameter 持有本次请求的 HandlerMethod，放进缓存会一直不释放
+     */
+    private final Map<DecisionKey, Boolean> decisions = new ConcurrentHashMap<>();
+
+    public ResponseWrapPolicy(ResponseWrapProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 返回值是否需要包装
+     * @param returnType Controller 方法的返回值
+     * @return 是否包装
+     */
+    public boolean shouldWrap(MethodParameter returnType) {
+        DecisionKey key = new DecisionKey(returnType);
+        Boolean decision = decisions.get(key);
+        if (decision == null) {
+            decision = decide(returnType);
+            decisions.putIfAbsent(key, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * 返回值的实际类型是否不需要包装
+     * 声明的返回类型是 Object 或者异步返回值的泛型是 Object 时，只能按实际的值判断
+     * @param body 返回值
+     * @return 是否不包装
+     */
+    public boolean isPassThrough(Object body) {
+        if (body == null) {
+            return false;
+        }
+        for (Class<?> passThrough : PASS_THROUGH_TYPES) {
+            if (passThrough.isInstance(body)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean decide(MethodParameter returnType) {
+        Boolean annotated = annotated(returnType.getMethod());
+        if (annotated == null) {
+            annotated = annotated(returnType.getContainingClass());
+        }
+        if (annotated != null) {
+            return annotated;
+        }
+
+        String className = returnType.getContainingClass().getName();
+        List<String> includes = properties.getIncludePackages();
+        if (includes != null && !includes.isEmpty() && !matches(className, includes)) {
+            return false;
+        }
+        if (properties.getExcludePackages() != null && matches(className, properties.getExcludePackages())) {
+            return false;
+        }
+
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.as(HttpEntity.class).getGeneric(0);
+        }
+        Class<?> raw = type.toClass();
+        for (Class<?> passThrough : PASS_THROUGH_TYPES) {
+            if (passThrough.isAssignableFrom(raw)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true 包装，false 不包装，null 没有注解
+     */
+    private static Boolean annotated(AnnotatedElement element) {
+        if (element == null) {
+            return null;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(element, IgnoreResponseWrap.class)) {
+            return false;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(element, ResponseWrap.class)) {
+            return true;
+        }
+        return null;
+    }
+
+    private static boolean matches(String className, List<String> packages) {
+        for (String p : packages) {
+            if (className.startsWith(p) && (className.length() == p.length() || className.charAt(p.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 所在的类、方法、解析后的返回类型（异步返回值为它的泛型），只引用反射对象
+     */
+    private static final class DecisionKey {
+        private final Class<?> containingClass;
+
+        private final Method method;
+
+        private final Type type;
+
+        DecisionKey(MethodParameter returnType) {
+            this.containingClass = returnType.getContainingClass();
+            this.method = returnType.getMethod();
+            this.type = returnType.getGenericParameterType();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey that = (DecisionKey) o;
+            return containingClass == that.containingClass && Objects.equals(method, that.method) && Objects.equals(type, that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(containingClass, method, type);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package top.bootzhong.common.advice;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 返回值包装配置
+ * @author bootzhong
+ */
+@Data
+@ConfigurationProperties(prefix = "bootzhong.response")
+public class ResponseWrapProperties {
+    /**
+     * 只包装这些包下的 Controller，为空时不限制
+     */
+    private List<String> includePackages = new ArrayList<>();
+
+    /**
+     * 不包装这些包下的 Controller，默认排除 actuator 和接口文档
+     */
+    private List<String> excludePackages = new ArrayList<>(Arrays.asList(
+            "org.springframework.boot.actuate",
+            "org.springdoc",
+            "springfox.documentation"));
+}
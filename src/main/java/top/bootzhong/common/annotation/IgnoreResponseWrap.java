@@ -0,0 +1,14 @@
+package top.bootzhong.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 不使用 CommonResponse 包装返回值
+ * 可以加在 Controller 类或方法上，方法上的优先
+ * @author bootzhong
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface IgnoreResponseWrap {
+}
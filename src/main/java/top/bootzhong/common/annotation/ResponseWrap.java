@@ -0,0 +1,14 @@
+package top.bootzhong.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 强制使用 CommonResponse 包装返回值，不受包过滤和返回类型的限制
+ * 可以加在 Controller 类或方法上，方法上的优先
+ * @author bootzhong
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseWrap {
+}
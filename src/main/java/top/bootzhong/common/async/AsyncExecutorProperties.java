@@ -0,0 +1,72 @@
+package top.bootzhong.common.async;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 异步执行线程池配置，Spring MVC 的异步请求（Callable、WebAsyncTask）和 @Async 共用
+ * @author bootzhong
+ */
+@Data
+@ConfigurationProperties(prefix = "bootzhong.async")
+public class AsyncExecutorProperties {
+    /**
+     * 是否配置异步执行线程池，已经有 Executor 时不配置
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否使用虚拟线程，为空时 Java 21 及以上使用，设置为 true 但不支持时仍使用线程池
+     */
+    private Boolean virtualThreads;
+
+    /**
+     * 使用虚拟线程时最多同时执行的任务数，超出时提交任务的线程等待，小于等于0不限制
+     */
+    private int virtualMaxConcurrency = -1;
+
+    /**
+     * 核心线程数
+     */
+    private int corePoolSize = 32;
+
+    /**
+     * 最大线程数，队列满了之后才会超过核心线程数
+     */
+    private int maxPoolSize = 256;
+
+    /**
+     * 队列长度，队列和线程都满了之后拒绝任务
+     */
+    private int queueCapacity = 1024;
+
+    /**
+     * 空闲线程的存活时间，核心线程空闲时同样会回收
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * 线程名前缀
+     */
+    private String threadNamePrefix = "bootzhong-async-";
+
+    /**
+     * 是否把提交任务线程的 MDC 复制到执行线程
+     */
+    private boolean propagateMdc = true;
+
+    /**
+     * 是否把提交任务线程的 RequestContextHolder 复制到执行线程，默认不复制
+     * 只有提交任务的请求一定会等任务执行完再结束时才能打开：@Async 任务一般比请求活得久，
+     * 请求结束后 Tomcat 会回收 Request 对象给其它请求用，任务里再读取会拿到别的请求的 header、属性，或者抛出异常
+     * MDC 是复制出来的 Map，没有这个问题
+     */
+    private boolean propagateRequestContext = false;
+
+    /**
+     * 关闭时等待正在执行的任务的时间，为空或0时不等待
+     */
+    private Duration awaitTermination;
+}
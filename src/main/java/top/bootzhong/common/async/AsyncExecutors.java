@@ -0,0 +1,83 @@
+package top.bootzhong.common.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 按配置创建异步执行器
+ * Java 21 及以上使用虚拟线程，每个任务一个线程；否则使用有界线程池
+ * 编译目标是 Java 8，虚拟线程通过反射创建
+ * @author bootzhong
+ */
+@Slf4j
+public final class AsyncExecutors {
+    private AsyncExecutors() {
+    }
+
+    /**
+     * 创建异步执行器，线程池需要交给 Spring 管理或者手动调用 initialize
+     * @param properties 配置
+     * @return 执行器
+     */
+    public static AsyncTaskExecutor create(AsyncExecutorProperties properties) {
+        TaskDecorator decorator = new ContextPropagatingTaskDecorator(properties.isPropagateMdc(), properties.isPropagateRequestContext());
+        if (!Boolean.FALSE.equals(properties.getVirtualThreads())) {
+            ThreadFactory factory = virtualThreadFactory(properties.getThreadNamePrefix());
+            if (factory != null) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(factory);
+                executor.setConcurrencyLimit(properties.getVirtualMaxConcurrency() > 0 ? properties.getVirtualMaxConcurrency() : SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+                executor.setTaskDecorator(decorator);
+                return executor;
+            }
+            if (Boolean.TRUE.equals(properties.getVirtualThreads())) {
+                log.warn("当前 Java 版本不支持虚拟线程，异步执行使用线程池");
+            }
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setKeepAliveSeconds((int) properties.getKeepAlive().getSeconds());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix(properties.getThreadNamePrefix());
+        executor.setTaskDecorator(decorator);
+        Duration await = properties.getAwaitTermination();
+        if (await != null && !await.isZero()) {
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationMillis(await.toMillis());
+        }
+        return executor;
+    }
+
+    /**
+     * 是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return virtualThreadFactory("probe-") != null;
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 0).factory()
+     * @return 不支持虚拟线程时返回null
+     */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //Java 21 以下没有这些方法，Java 19、20 未开启预览时会抛异常
+            return null;
+        }
+    }
+}
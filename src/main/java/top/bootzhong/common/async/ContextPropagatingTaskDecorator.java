@@ -0,0 +1,61 @@
+package top.bootzhong.common.async;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * 把提交任务线程的 MDC、RequestContextHolder 复制到执行线程，执行完恢复执行线程原来的值
+ * RequestContextHolder 复制的是原请求的引用，只在提交任务的请求等任务执行完才结束时安全，见 AsyncExecutorProperties.propagateRequestContext
+ * @author bootzhong
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+    private final boolean mdc;
+
+    private final boolean requestContext;
+
+    public ContextPropagatingTaskDecorator(boolean mdc, boolean requestContext) {
+        this.mdc = mdc;
+        this.requestContext = requestContext;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> mdcContext = mdc ? MDC.getCopyOfContextMap() : null;
+        RequestAttributes attributes = requestContext ? RequestContextHolder.getRequestAttributes() : null;
+        if (mdcContext == null && attributes == null) {
+            return runnable;
+        }
+        return () -> {
+            Map<String, String> previousMdc = mdcContext == null ? null : MDC.getCopyOfContextMap();
+            RequestAttributes previousAttributes = attributes == null ? null : RequestContextHolder.getRequestAttributes();
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
+            if (attributes != null) {
+                RequestContextHolder.setRequestAttributes(attributes);
+            }
+            try {
+                runnable.run();
+            } finally {
+                if (mdcContext != null) {
+                    if (previousMdc == null) {
+                        MDC.clear();
+                    } else {
+                        MDC.setContextMap(previousMdc);
+                    }
+                }
+                if (attributes != null) {
+                    if (previousAttributes == null) {
+                        RequestContextHolder.resetRequestAttributes();
+                    } else {
+                        RequestContextHolder.setRequestAttributes(previousAttributes);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package top.bootzhong.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * LookupCache 的统计，创建之后累计，不会清零
+ * @author bootzhong
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class CacheStats {
+    private final String name;
+
+    /**
+     * 命中次数，按 key 计，等待其它线程查询的也算命中
+     */
+    private final long hitCount;
+
+    /**
+     * 未命中次数，按 key 计
+     */
+    private final long missCount;
+
+    /**
+     * loader 调用成功次数，一次调用可以查询多个 key
+     */
+    private final long loadSuccessCount;
+
+    /**
+     * loader 抛出异常的次数
+     */
+    private final long loadFailureCount;
+
+    /**
+     * loader 累计耗时，纳秒
+     */
+    private final long totalLoadTime;
+
+    /**
+     * 因为过期、超过容量被清理的数量
+     */
+    private final long evictionCount;
+
+    /**
+     * 当前数量
+     */
+    private final long size;
+
+    /**
+     * @return 命中率，没有请求时为1
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return loader 平均每次调用的耗时，纳秒
+     */
+    public double averageLoadPenalty() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+}
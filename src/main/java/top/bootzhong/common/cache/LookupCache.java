@@ -0,0 +1,325 @@
+package top.bootzhong.common.cache;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内的查询缓存，用于按 key 批量查询的参考数据（公司名称、字典等）
+ * 1. 写入之后 ttl 过期，数量超过 maximumSize 时先清理过期的，再淘汰最早写入的一批
+ * 2. 同一个 key 同时只有一次查询，其它线程等待这次查询的结果
+ * 3. 查询不到的 key 不缓存，下次仍然会查询
+ * 线程安全，一般由 LookupCacheManager 按名称创建
+ * @param <K> key 类型
+ * @param <V> value 类型
+ * @author bootzhong
+ * @apiNote 使用实例
+ *   Map<Long, Company> companies = cache.getAll(compIds, ids -> ListUtil.index(companyMapper.selectByIds(ids), Company::getId));
+ */
+public final class LookupCache<K, V> {
+    /**
+     * 超过容量时淘汰到容量的 90%，避免每次写入都淘汰
+     */
+    private static final int EVICT_PERCENT = 10;
+
+    private final String name;
+
+    private final long maximumSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier ticker;
+
+    private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loadSuccesses = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name 名称，用于统计、日志
+     * @param maximumSize 最大数量，必须大于0
+     * @param ttl 写入之后的过期时间，必须大于0
+     */
+    public LookupCache(String name, long maximumSize, Duration ttl) {
+        this(name, maximumSize, ttl, System::nanoTime);
+    }
+
+    LookupCache(String name, long maximumSize, Duration ttl, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 必须大于0");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl 必须大于0");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 缓存中没有过期的值，不查询，不计入统计
+     */
+    public V getIfPresent(K key) {
+        Entry<V> e = map.get(key);
+        return e != null && e.isValid(ticker.getAsLong()) ? e.value : null;
+    }
+
+    /**
+     * 查询单个 key，规则同 getAll
+     * @param loader 查询不到时返回null
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return getAll(Collections.singletonList(key), keys -> {
+            V v = loader.apply(keys.get(0));
+            return v == null ? Collections.emptyMap() : Collections.singletonMap(keys.get(0), v);
+        }).get(key);
+    }
+
+    /**
+     * 批量查询，缓存中有的直接返回，没有的 key 合并成一次 loader 调用
+     * 其它线程正在查询的 key 不再查询，等待其它线程的结果
+     * 为空的 key 跳过，loader 抛出的异常原样抛出，这次查询的 key 都不缓存
+     * @param keys 要查询的 key，可以重复
+     * @param loader 按没有缓存的 key 查询，返回 key -> value，查询不到的 key 不放入
+     * @return key -> value，查询不到的 key 不在结果中
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super List<K>, ? extends Map<K, ? extends V>> loader) {
+        if (keys == null || keys.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<K, V> result = new HashMap<>(capacity(keys.size()));
+        List<K> toLoad = null;
+        List<Entry<V>> loading = null;
+        Map<K, Entry<V>> waiting = null;
+
+        Set<K> seen = new HashSet<>(capacity(keys.size()));
+        long now = ticker.getAsLong();
+        for (K key : keys) {
+            if (key == null || !seen.add(key)) {
+                continue;
+            }
+            Entry<V> e = map.get(key);
+            if (e == null || e.isExpired(now)) {
+                Entry<V> created = new Entry<>();
+                e = map.compute(key, (k, old) -> old == null || old.isExpired(now) ? created : old);
+                if (e == created) {
+                    misses.increment();
+                    if (toLoad == null) {
+                        toLoad = new ArrayList<>();
+                        loading = new ArrayList<>();
+                    }
+                    toLoad.add(key);
+                    loading.add(created);
+                    continue;
+                }
+            }
+            hits.increment();
+            if (e.isLoading()) {
+                if (waiting == null) {
+                    waiting = new HashMap<>();
+                }
+                waiting.put(key, e);
+            } else {
+                result.put(key, e.value);
+            }
+        }
+
+        if (toLoad != null) {
+            load(toLoad, loading, loader, result);
+        }
+        if (waiting != null) {
+            for (Map.Entry<K, Entry<V>> w : waiting.entrySet()) {
+                V v = await(w.getValue());
+                if (v != null) {
+                    result.put(w.getKey(), v);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 放入缓存，覆盖原来的值
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        Entry<V> e = new Entry<>();
+        e.complete(value, ticker.getAsLong() + ttlNanos);
+        Entry<V> old = map.put(key, e);
+        if (old != null && old.isLoading()) {
+            old.complete(value, 0);
+        }
+        evictIfNecessary();
+    }
+
+    /**
+     * 删除，正在查询的 key 查询完之后不再缓存
+     */
+    public void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public void invalidateAll() {
+        map.clear();
+    }
+
+    /**
+     * @return 当前数量，包括已经过期但还没有清理的
+     */
+    public long size() {
+        return map.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                totalLoadNanos.sum(), evictions.sum(), map.size());
+    }
+
+    private void load(List<K> keys, List<Entry<V>> entries, Function<? super List<K>, ? extends Map<K, ? extends V>> loader,
+                      Map<K, V> result) {
+        long start = ticker.getAsLong();
+        Map<K, ? extends V> loaded;
+        try {
+            loaded = loader.apply(Collections.unmodifiableList(keys));
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            totalLoadNanos.add(ticker.getAsLong() - start);
+            for (int i = 0; i < keys.size(); i++) {
+                map.remove(keys.get(i), entries.get(i));
+                entries.get(i).fail(e);
+            }
+            throw e;
+        }
+        long end = ticker.getAsLong();
+        loadSuccesses.increment();
+        totalLoadNanos.add(end - start);
+
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            Entry<V> e = entries.get(i);
+            V v = loaded == null ? null : loaded.get(key);
+            if (v == null) {
+                map.remove(key, e);
+            } else {
+                result.put(key, v);
+            }
+            e.complete(v, end + ttlNanos);
+        }
+        evictIfNecessary();
+    }
+
+    private V await(Entry<V> e) {
+        try {
+            return e.future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 只有一个线程淘汰，其它线程不等待
+     */
+    private void evictIfNecessary() {
+        if (map.size() <= maximumSize || !evictLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = ticker.getAsLong();
+            long evicted = 0;
+            for (Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator(); it.hasNext(); ) {
+                if (it.next().getValue().isExpired(now)) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+
+            long target = maximumSize - maximumSize * EVICT_PERCENT / 100;
+            if (map.size() > target) {
+                List<Map.Entry<K, Entry<V>>> done = new ArrayList<>(map.size());
+                for (Map.Entry<K, Entry<V>> entry : map.entrySet()) {
+                    if (!entry.getValue().isLoading()) {
+                        done.add(entry);
+                    }
+                }
+                done.sort(Comparator.comparingLong(entry -> entry.getValue().expireAt));
+                for (int i = 0, n = (int) Math.min(done.size(), map.size() - target); i < n; i++) {
+                    if (map.remove(done.get(i).getKey(), done.get(i).getValue())) {
+                        evicted++;
+                    }
+                }
+            }
+            evictions.add(evicted);
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+    }
+
+    /**
+     * 查询中的 entry 没有 value，future 完成之后才有
+     */
+    private static final class Entry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private volatile V value;
+
+        private volatile long expireAt;
+
+        private volatile boolean loading = true;
+
+        boolean isLoading() {
+            return loading;
+        }
+
+        boolean isExpired(long now) {
+            return !loading && now - expireAt >= 0;
+        }
+
+        boolean isValid(long now) {
+            return !loading && now - expireAt < 0;
+        }
+
+        void complete(V v, long expireAt) {
+            this.value = v;
+            this.expireAt = expireAt;
+            this.loading = false;
+            future.complete(v);
+        }
+
+        void fail(Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package top.bootzhong.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按名称管理 LookupCache，第一次获取时按配置创建
+ * 开启 bootzhong.cache.enabled 之后自动配置
+ * @author bootzhong
+ * @apiNote 使用实例
+ *   private final LookupCache<Long, String> companyNames = cacheManager.getCache("companyName");
+ */
+public class LookupCacheManager {
+    private final LookupCacheProperties properties;
+
+    private final ConcurrentMap<String, LookupCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public LookupCacheManager(LookupCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 同一个名称返回同一个缓存，key、value 类型由调用方保证一致
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LookupCache<K, V> getCache(String name) {
+        return (LookupCache<K, V>) caches.computeIfAbsent(name, this::create);
+    }
+
+    public Collection<String> getCacheNames() {
+        return new ArrayList<>(caches.keySet());
+    }
+
+    /**
+     * @return 所有已经创建的缓存的统计
+     */
+    public List<CacheStats> stats() {
+        List<CacheStats> stats = new ArrayList<>(caches.size());
+        for (LookupCache<?, ?> cache : caches.values()) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+
+    private LookupCache<?, ?> create(String name) {
+        LookupCacheProperties.Spec spec = properties.getCaches().get(name);
+        long maximumSize = spec != null && spec.getMaximumSize() != null ? spec.getMaximumSize() : properties.getMaximumSize();
+        return new LookupCache<>(name, maximumSize, spec != null && spec.getTtl() != null ? spec.getTtl() : properties.getTtl());
+    }
+}
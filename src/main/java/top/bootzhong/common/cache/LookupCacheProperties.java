@@ -0,0 +1,49 @@
+package top.bootzhong.common.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 查询缓存配置
+ * @author bootzhong
+ */
+@Data
+@ConfigurationProperties(prefix = "bootzhong.cache")
+public class LookupCacheProperties {
+    /**
+     * 是否配置 LookupCacheManager，默认不配置
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个缓存默认的最大数量
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 每个缓存默认的过期时间，从写入开始计算
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 按名称单独配置，没有配置的项使用默认值
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        /**
+         * 最大数量
+         */
+        private Long maximumSize;
+
+        /**
+         * 过期时间，从写入开始计算
+         */
+        private Duration ttl;
+    }
+}
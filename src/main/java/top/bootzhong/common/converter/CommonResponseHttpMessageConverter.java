@@ -0,0 +1,337 @@
+package top.bootzhong.common.converter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import top.bootzhong.common.model.entity.CommonResponse;
+import top.bootzhong.common.metrics.ResponseMetrics;
+import top.bootzhong.common.model.entity.StreamingCommonResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * CommonResponse 的 JSON 输出
+ * 替换默认的 MappingJackson2HttpMessageConverter，其他类型仍交给 Jackson
+ * CommonResponse 的外层字段使用预先编码好的字节片段直接写出，只有 data、msg、pageInfo 交给共享的 ObjectMapper
+ * 启动时会用 ObjectMapper 序列化几个样例比较结果，ObjectMapper 的配置（命名策略、忽略 null、缩进等）导致输出不一致时不启用
+ * StreamingCommonResponse 的 data 边遍历边写，输出完成后关闭
+ * 设置了 ResponseMetrics 时统计输出的字节数
+ * @author bootzhong
+ */
+@Slf4j
+public class CommonResponseHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private static final SerializableString DATA = raw("{\"data\":");
+    private static final SerializableString MSG = raw(",\"msg\":");
+    private static final SerializableString CODE = raw(",\"code\":");
+    private static final SerializableString SUCCESS_TRUE = raw(",\"success\":true");
+    private static final SerializableString SUCCESS_FALSE = raw(",\"success\":false");
+    private static final SerializableString PAGE_INFO = raw(",\"pageInfo\":");
+    private static final SerializableString NULL = raw("null");
+    private static final SerializableString END = raw("}");
+
+    /**
+     * success(...) 不分页时 data 之后的部分
+     */
+    private static final SerializableString SUCCESS_TAIL = raw(",\"msg\":null,\"code\":200,\"success\":true,\"pageInfo\":null}");
+
+    /**
+     * serviceException、serverException 的开头
+     */
+    private static final SerializableString ERROR_HEAD = raw("{\"data\":null,\"msg\":");
+
+    /**
+     * serverException msg 之后的部分
+     */
+    private static final SerializableString SERVER_ERROR_TAIL = raw(",\"code\":500,\"success\":false,\"pageInfo\":null}");
+
+    /**
+     * serviceException msg 之后的部分
+     */
+    private static final SerializableString SERVICE_ERROR_TAIL = raw(",\"code\":400,\"success\":false,\"pageInfo\":null}");
+
+    /**
+     * data、pageInfo 使用，写完不单独 flush
+     */
+    private final ObjectWriter valueWriter;
+
+    private final boolean envelopeEnabled;
+
+    /**
+     * 设置了 JSON 前缀时不走预编码输出
+     */
+    private boolean prefixed;
+
+    private ResponseMetrics metrics = ResponseMetrics.NONE;
+
+    public CommonResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.envelopeEnabled = compatible();
+        if (!envelopeEnabled) {
+            log.info("ObjectMapper 的配置改变了 CommonResponse 的输出格式，CommonResponse 使用 Jackson 默认方式输出");
+        }
+    }
+
+    /**
+     * 是否使用预编码的外层字段输出
+     */
+    public boolean isEnvelopeEnabled() {
+        return envelopeEnabled;
+    }
+
+    public void setResponseMetrics(ResponseMetrics metrics) {
+        this.metrics = metrics == null ? ResponseMetrics.NONE : metrics;
+    }
+
+    @Override
+    public void setJsonPrefix(String jsonPrefix) {
+        super.setJsonPrefix(jsonPrefix);
+        this.prefixed = jsonPrefix != null;
+    }
+
+    @Override
+    public void setPrefixJson(boolean prefixJson) {
+        super.setPrefixJson(prefixJson);
+        this.prefixed = prefixJson;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!metrics.isPayloadEnabled()) {
+            write(object, type, outputMessage);
+            return;
+        }
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        write(object, type, counting);
+        metrics.payload(counting.count);
+    }
+
+    private void write(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            if (!envelopeEnabled || prefixed || !(object instanceof CommonResponse) || !isUtf8(outputMessage.getHeaders().getContentType())) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            writeEnvelope((CommonResponse<?>) object, StreamUtils.nonClosing(outputMessage.getBody()));
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        } finally {
+            if (object instanceof StreamingCommonResponse) {
+                ((StreamingCommonResponse<?>) object).close();
+            }
+        }
+    }
+
+    /**
+     * 把 CommonResponse 以 UTF-8 JSON 写到输出流，不关闭输出流
+     * @param response 响应
+     * @param out 输出流
+     * @throws IOException
+     */
+    public void writeEnvelope(CommonResponse<?> response, OutputStream out) throws IOException {
+        try (JsonGenerator gen = getObjectMapper().getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            //外层字段是直接写的字节，不能让 Jackson 在几个顶层值之间插入分隔符
+            gen.setRootValueSeparator(null);
+            writeEnvelope(valueWriter, gen, response);
+        }
+    }
+
+    private static void writeEnvelope(ObjectWriter writer, JsonGenerator gen, CommonResponse<?> response) throws IOException {
+        if (response instanceof StreamingCommonResponse) {
+            writeStreaming(writer, gen, (StreamingCommonResponse<?>) response);
+            return;
+        }
+
+        Integer code = response.getCode();
+        String msg = response.getMsg();
+        Object pageInfo = response.getPageInfo();
+
+        if (response.isSuccess() && msg == null && pageInfo == null && code != null && code == 200) {
+            gen.writeRaw(DATA);
+            writeValue(writer, gen, response.getData());
+            gen.writeRaw(SUCCESS_TAIL);
+            return;
+        }
+        if (!response.isSuccess() && response.getData() == null && pageInfo == null && code != null && (code == 500 || code == 400)) {
+            gen.writeRaw(ERROR_HEAD);
+            writeString(gen, msg);
+            gen.writeRaw(code == 500 ? SERVER_ERROR_TAIL : SERVICE_ERROR_TAIL);
+            return;
+        }
+
+        gen.writeRaw(DATA);
+        writeValue(writer, gen, response.getData());
+        gen.writeRaw(MSG);
+        writeString(gen, msg);
+        gen.writeRaw(CODE);
+        if (code == null) {
+            gen.writeRaw(NULL);
+        } else {
+            gen.writeNumber(code);
+        }
+        gen.writeRaw(response.isSuccess() ? SUCCESS_TRUE : SUCCESS_FALSE);
+        gen.writeRaw(PAGE_INFO);
+        writeValue(writer, gen, pageInfo);
+        gen.writeRaw(END);
+    }
+
+    /**
+     * data 逐行输出，JsonGenerator 的缓冲区满了会自动写到输出流，内存占用和行数无关
+     * pageInfo 在 data 之后获取
+     */
+    private static void writeStreaming(ObjectWriter writer, JsonGenerator gen, StreamingCommonResponse<?> response) throws IOException {
+        gen.writeRaw(DATA);
+        Iterator<?> rows = response.getData();
+        if (rows == null) {
+            gen.writeRaw(NULL);
+        } else {
+            gen.writeStartArray();
+            while (rows.hasNext()) {
+                Object row = rows.next();
+                if (row == null) {
+                    gen.writeNull();
+                } else {
+                    writer.writeValue(gen, row);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeRaw(MSG);
+        writeString(gen, response.getMsg());
+        gen.writeRaw(CODE);
+        gen.writeNumber(response.getCode());
+        gen.writeRaw(SUCCESS_TRUE);
+        gen.writeRaw(PAGE_INFO);
+        writeValue(writer, gen, response.getPageInfo());
+        gen.writeRaw(END);
+    }
+
+    private static void writeValue(ObjectWriter writer, JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeRaw(NULL);
+        } else {
+            writer.writeValue(gen, value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, String value) throws IOException {
+        if (value == null) {
+            gen.writeRaw(NULL);
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static boolean isUtf8(@Nullable MediaType contentType) {
+        return contentType == null || contentType.getCharset() == null || StandardCharsets.UTF_8.equals(contentType.getCharset());
+    }
+
+    /**
+     * 用几个样例比较预编码输出和 ObjectMapper 的输出是否完全一致
+     */
+    private boolean compatible() {
+        CommonResponse<?>[] samples = {
+                CommonResponse.success(Collections.singletonMap("k", "v")),
+                CommonResponse.success(null),
+                CommonResponse.success(Arrays.asList(1, 2), 2, 10, 25),
+                CommonResponse.serverException("\r\nline \"quoted\"\r\n"),
+                CommonResponse.serviceException("中文"),
+                CommonResponse.serviceException(401, null)
+        };
+        try {
+            for (CommonResponse<?> sample : samples) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writeEnvelope(sample, out);
+                if (!Arrays.equals(out.toByteArray(), getObjectMapper().writeValueAsBytes(sample))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("CommonResponse 预编码输出校验失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 统计写出的字节数
+     */
+    private static class CountingOutputMessage extends OutputStream implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+
+        private OutputStream body;
+
+        private long count;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = delegate.getBody();
+            }
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            body.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            body.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            body.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    private static SerializableString raw(String json) {
+        SerializedString s = new SerializedString(json);
+        //预先编码好 UTF-8 字节
+        s.asUnquotedUTF8();
+        return s;
+    }
+}
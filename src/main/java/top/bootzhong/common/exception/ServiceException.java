@@ -1,11 +1,75 @@
 package top.bootzhong.common.exception;
 
+import lombok.Getter;
+
 /**
  * 业务逻辑异常
+ * 业务异常只返回 message，堆栈没有用处，可以不填充堆栈以降低抛出的成本：
+ * 1. 单个实例：构造时传 stackless = true
+ * 2. 全局：配置或系统属性 bootzhong.service-exception.stackless=true，或调用 setStackless(true)
+ * 3. 固定的错误码、错误信息可以用 constant 预先创建，重复抛出同一个实例
  * @author bootzhong
  */
+@Getter
 public class ServiceException extends RuntimeException{
+    private static final long serialVersionUID = 1L;
+
+    private static volatile boolean stackless = Boolean.getBoolean("bootzhong.service-exception.stackless");
+
+    /**
+     * 错误码，为空时使用默认的业务错误码
+     */
+    private final Integer code;
+
     public ServiceException(String msg){
-        super(msg);
+        this(null, msg, true, !stackless);
+    }
+
+    public ServiceException(String msg, boolean stackless){
+        this(null, msg, true, !stackless);
+    }
+
+    public ServiceException(Integer code, String msg){
+        this(code, msg, true, !stackless);
+    }
+
+    public ServiceException(Integer code, String msg, boolean stackless){
+        this(code, msg, true, !stackless);
+    }
+
+    protected ServiceException(Integer code, String msg, boolean enableSuppression, boolean writableStackTrace){
+        super(msg, null, enableSuppression, writableStackTrace);
+        this.code = code;
+    }
+
+    /**
+     * 创建可重复抛出的异常，没有堆栈，不记录 suppressed，适合保存为常量
+     * @param code 错误码
+     * @param msg 错误信息
+     * @return ServiceException
+     */
+    public static ServiceException constant(Integer code, String msg){
+        return new ServiceException(code, msg, false, false);
+    }
+
+    /**
+     * 创建可重复抛出的异常，没有堆栈，不记录 suppressed，适合保存为常量
+     * @param msg 错误信息
+     * @return ServiceException
+     */
+    public static ServiceException constant(String msg){
+        return constant(null, msg);
+    }
+
+    /**
+     * 全局设置新建的异常是否不填充堆栈
+     * @param stackless 是否不填充堆栈
+     */
+    public static void setStackless(boolean stackless){
+        ServiceException.stackless = stackless;
+    }
+
+    public static boolean isStackless(){
+        return stackless;
     }
 }
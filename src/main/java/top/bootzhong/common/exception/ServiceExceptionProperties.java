@@ -0,0 +1,17 @@
+package top.bootzhong.common.exception;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 业务异常配置
+ * @author bootzhong
+ */
+@Data
+@ConfigurationProperties(prefix = "bootzhong.service-exception")
+public class ServiceExceptionProperties {
+    /**
+     * 新建的 ServiceException 是否不填充堆栈，见 ServiceException.setStackless，不配置时沿用同名系统属性
+     */
+    private Boolean stackless;
+}
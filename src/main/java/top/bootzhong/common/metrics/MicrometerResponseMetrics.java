@@ -0,0 +1,143 @@
+package top.bootzhong.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Micrometer 的埋点
+ * 每个 Controller 方法第一次出现时创建好它的 Meter，之后每次请求只是两次 Map 查找和计数
+ * 指标：
+ * bootzhong.response          返回值是否包装，标签 handler、outcome=wrapped/pass_through
+ * bootzhong.exception         异常次数，标签 handler、kind=service/server、exception
+ * bootzhong.error.render      系统异常生成错误信息的耗时
+ * bootzhong.response.size     JSON 响应的字节数
+ * @author bootzhong
+ */
+public class MicrometerResponseMetrics implements ResponseMetrics {
+    /**
+     * 不在 Controller 方法中抛出的异常
+     */
+    static final String NO_HANDLER = "none";
+
+    private final MeterRegistry registry;
+
+    private final Timer errorRender;
+
+    private final DistributionSummary payload;
+
+    private final Map<Method, HandlerMeters> handlers = new ConcurrentHashMap<>();
+
+    private final HandlerMeters noHandler;
+
+    public MicrometerResponseMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.errorRender = Timer.builder("bootzhong.error.render")
+                .description("系统异常生成错误信息的耗时")
+                .register(registry);
+        this.payload = DistributionSummary.builder("bootzhong.response.size")
+                .description("JSON 响应的字节数")
+                .baseUnit("bytes")
+                .register(registry);
+        this.noHandler = new HandlerMeters(registry, NO_HANDLER);
+    }
+
+    @Override
+    public void wrapped(Method handler) {
+        meters(handler).wrapped.increment();
+    }
+
+    @Override
+    public void passThrough(Method handler) {
+        meters(handler).passThrough.increment();
+    }
+
+    @Override
+    public void serviceException(Method handler, Throwable e) {
+        HandlerMeters meters = meters(handler);
+        meters.exception(meters.serviceExceptions, "service", e).increment();
+    }
+
+    @Override
+    public void serverException(Method handler, Throwable e) {
+        HandlerMeters meters = meters(handler);
+        meters.exception(meters.serverExceptions, "server", e).increment();
+    }
+
+    @Override
+    public void errorRendered(long nanos) {
+        errorRender.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean isPayloadEnabled() {
+        return true;
+    }
+
+    @Override
+    public void payload(long bytes) {
+        payload.record(bytes);
+    }
+
+    private HandlerMeters meters(Method handler) {
+        if (handler == null) {
+            return noHandler;
+        }
+        HandlerMeters meters = handlers.get(handler);
+        if (meters == null) {
+            meters = handlers.computeIfAbsent(handler, m -> new HandlerMeters(registry, m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        }
+        return meters;
+    }
+
+    /**
+     * 单个 Controller 方法的 Meter
+     */
+    private static class HandlerMeters {
+        private final MeterRegistry registry;
+
+        private final String handler;
+
+        private final Counter wrapped;
+
+        private final Counter passThrough;
+
+        private final Map<Class<?>, Counter> serviceExceptions = new ConcurrentHashMap<>();
+
+        private final Map<Class<?>, Counter> serverExceptions = new ConcurrentHashMap<>();
+
+        HandlerMeters(MeterRegistry registry, String handler) {
+            this.registry = registry;
+            this.handler = handler;
+            this.wrapped = response(registry, handler, "wrapped");
+            this.passThrough = response(registry, handler, "pass_through");
+        }
+
+        Counter exception(Map<Class<?>, Counter> counters, String kind, Throwable e) {
+            Counter counter = counters.get(e.getClass());
+            if (counter == null) {
+                counter = counters.computeIfAbsent(e.getClass(), type -> Counter.builder("bootzhong.exception")
+                        .description("Controller 异常次数")
+                        .tag("handler", handler)
+                        .tag("kind", kind)
+                        .tag("exception", type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName())
+                        .register(registry));
+            }
+            return counter;
+        }
+
+        private static Counter response(MeterRegistry registry, String handler, String outcome) {
+            return Counter.builder("bootzhong.response")
+                    .description("返回值是否用 CommonResponse 包装")
+                    .tag("handler", handler)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
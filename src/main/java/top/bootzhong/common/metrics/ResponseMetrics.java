@@ -0,0 +1,68 @@
+package top.bootzhong.common.metrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * GlobalControllerAdvice、CommonResponseHttpMessageConverter 的埋点
+ * 不依赖 Micrometer，没有 Micrometer 时使用 NONE，见 MicrometerResponseMetrics
+ * 每次请求都会调用，实现不能在这里拼接标签、创建对象
+ * @author bootzhong
+ */
+public interface ResponseMetrics {
+    /**
+     * 不记录
+     */
+    ResponseMetrics NONE = new ResponseMetrics() {
+    };
+
+    /**
+     * 返回值被包装成 CommonResponse
+     * @param handler Controller 方法
+     */
+    default void wrapped(Method handler) {
+    }
+
+    /**
+     * 返回值原样输出，包括本身就是 CommonResponse 的
+     * @param handler Controller 方法
+     */
+    default void passThrough(Method handler) {
+    }
+
+    /**
+     * 业务异常
+     * @param handler Controller 方法，不在 Controller 方法中抛出时为空
+     * @param e 异常
+     */
+    default void serviceException(Method handler, Throwable e) {
+    }
+
+    /**
+     * 系统异常
+     * @param handler Controller 方法，不在 Controller 方法中抛出时为空
+     * @param e 异常
+     */
+    default void serverException(Method handler, Throwable e) {
+    }
+
+    /**
+     * 系统异常生成响应中的错误信息的耗时，见 ErrorRenderer
+     * @param nanos 纳秒
+     */
+    default void errorRendered(long nanos) {
+    }
+
+    /**
+     * 是否记录响应大小，为 false 时输出 JSON 不统计字节数
+     */
+    default boolean isPayloadEnabled() {
+        return false;
+    }
+
+    /**
+     * JSON 响应的字节数
+     * @param bytes 字节数
+     */
+    default void payload(long bytes) {
+    }
+}
@@ -1,8 +1,14 @@
 package top.bootzhong.common.model.entity;
 
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
+import top.bootzhong.common.util.PageCursor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * 统一响应类
@@ -22,23 +28,79 @@ public class CommonResponse<T> {
 
     /**
      * 分页信息
+     * total、totalPages 可以不提供（不查总数）或延迟到输出时再获取
+     * 游标分页时使用 hasNext、nextCursor，为空的字段不输出
      */
     @Setter
     @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     static class PageInfo{
         private int page;
 
         private int pageSize;
 
-        private long total;
-        
-        private int totalPages;
+        private Long total;
+
+        private Integer totalPages;
+
+        /**
+         * 是否还有下一页，不查总数时使用
+         */
+        private Boolean hasNext;
+
+        /**
+         * 下一页的游标，见 PageCursor
+         */
+        private String nextCursor;
+
+        /**
+         * 第一次 getTotal 时调用，序列化时一定会调用，见 CommonResponse.success(T, int, int, LongSupplier)
+         */
+        @JsonIgnore
+        private LongSupplier totalSupplier;
 
         public PageInfo(int page, int pageSize, long total){
             this.page = page;
             this.pageSize = pageSize;
+            setTotal(total);
+        }
+
+        PageInfo(int page, int pageSize, Boolean hasNext, String nextCursor){
+            this.page = page;
+            this.pageSize = pageSize;
+            this.hasNext = hasNext;
+            this.nextCursor = nextCursor;
+        }
+
+        PageInfo(int page, int pageSize, LongSupplier totalSupplier){
+            this.page = page;
+            this.pageSize = pageSize;
+            this.totalSupplier = totalSupplier;
+        }
+
+        public void setTotal(Long total){
             this.total = total;
-            this.totalPages = pageSize / page + pageSize % page > 0 ? 1 : 0;
+            this.totalPages = total == null ? null : totalPages(total, pageSize);
+        }
+
+        public Long getTotal(){
+            if (total == null && totalSupplier != null){
+                setTotal(totalSupplier.getAsLong());
+                totalSupplier = null;
+            }
+            return total;
+        }
+
+        public Integer getTotalPages(){
+            getTotal();
+            return totalPages;
+        }
+
+        static int totalPages(long total, int pageSize){
+            if (pageSize <= 0){
+                return 0;
+            }
+            return (int) ((total + pageSize - 1) / pageSize);
         }
     }
 
@@ -70,6 +132,56 @@ public class CommonResponse<T> {
         return new CommonResponse<>(data, new PageInfo(page, pageSize, total), 200, true);
     }
 
+    /**
+     * 分页，总数在输出时才获取
+     * 只是推迟，不是省掉：序列化 pageInfo 时一定会调用 total（比如执行 COUNT），耗时同样算在这次请求里
+     * 好处只是 Controller 返回之前不用等 COUNT，且 data 序列化失败时不再查询；不需要总数时用 successPage 或 successCursor
+     * @param data
+     * @param page
+     * @param pageSize
+     * @param total 获取总数
+     * @return
+     * @param <T>
+     */
+    public static <T> CommonResponse<T> success(T data, int page, int pageSize, LongSupplier total){
+        return new CommonResponse<>(data, new PageInfo(page, pageSize, total), 200, true);
+    }
+
+    /**
+     * 分页，不查总数
+     * rows 按 pageSize + 1 条查询，多出来的一条只用来判断是否有下一页
+     * @param rows 查询结果，最多 pageSize + 1 条
+     * @param page
+     * @param pageSize
+     * @return
+     * @param <R>
+     */
+    public static <R> CommonResponse<List<R>> successPage(List<R> rows, int page, int pageSize){
+        boolean hasNext = rows.size() > pageSize;
+        List<R> data = hasNext ? rows.subList(0, pageSize) : rows;
+        return new CommonResponse<>(data, new PageInfo(page, pageSize, hasNext, null), 200, true);
+    }
+
+    /**
+     * 游标分页（keyset），不查总数，不用 OFFSET
+     * rows 按 pageSize + 1 条查询，有下一页时用最后一行生成 nextCursor，下一次查询用 PageCursor.decode 解析后作为条件
+     * @param rows 查询结果，最多 pageSize + 1 条
+     * @param pageSize
+     * @param cursor 取最后一行的排序字段，多个字段用数组
+     * @return
+     * @param <R>
+     */
+    public static <R> CommonResponse<List<R>> successCursor(List<R> rows, int pageSize, Function<R, ?> cursor){
+        boolean hasNext = rows.size() > pageSize;
+        List<R> data = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext && !data.isEmpty()){
+            Object key = cursor.apply(data.get(data.size() - 1));
+            nextCursor = key instanceof Object[] ? PageCursor.encode((Object[]) key) : PageCursor.encode(key);
+        }
+        return new CommonResponse<>(data, new PageInfo(0, pageSize, hasNext, nextCursor), 200, true);
+    }
+
     /**
      * 系统错误
      * @param msg
@@ -89,4 +201,15 @@ public class CommonResponse<T> {
     public static <T> CommonResponse<T> serviceException(String msg){
         return new CommonResponse<>(msg, 400, false);
     }
+
+    /**
+     * 业务错误，指定错误码
+     * @param code 为空时为400
+     * @param msg
+     * @return
+     * @param <T>
+     */
+    public static <T> CommonResponse<T> serviceException(Integer code, String msg){
+        return new CommonResponse<>(msg, code == null ? 400 : code, false);
+    }
 }
@@ -0,0 +1,89 @@
+package top.bootzhong.common.model.entity;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 流式输出的统一响应
+ * data 不需要提前全部加载到内存，输出时边遍历边写，格式和 CommonResponse 相同，pageInfo 在最后输出
+ * 只能输出一次，输出完成后会关闭传入的 Stream
+ * @param <T> 行的类型
+ * @author bootzhong
+ */
+public class StreamingCommonResponse<T> extends CommonResponse<Iterator<T>> implements AutoCloseable {
+    private final Runnable onClose;
+
+    private final int page;
+
+    private final int pageSize;
+
+    /**
+     * 为空时不分页
+     */
+    private final LongSupplier total;
+
+    private PageInfo pageInfo;
+
+    StreamingCommonResponse(Iterator<T> rows, Runnable onClose, int page, int pageSize, LongSupplier total) {
+        super(rows, null, 200, true);
+        this.onClose = onClose;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.total = total;
+    }
+
+    public static <T> StreamingCommonResponse<T> success(Iterator<T> rows) {
+        return new StreamingCommonResponse<>(rows, null, 0, 0, null);
+    }
+
+    public static <T> StreamingCommonResponse<T> success(Spliterator<T> rows) {
+        return success(Spliterators.iterator(rows));
+    }
+
+    public static <T> StreamingCommonResponse<T> success(Stream<T> rows) {
+        return new StreamingCommonResponse<>(rows.iterator(), rows::close, 0, 0, null);
+    }
+
+    public static <T> StreamingCommonResponse<T> success(Iterator<T> rows, int page, int pageSize, long total) {
+        return new StreamingCommonResponse<>(rows, null, page, pageSize, () -> total);
+    }
+
+    public static <T> StreamingCommonResponse<T> success(Stream<T> rows, int page, int pageSize, long total) {
+        return new StreamingCommonResponse<>(rows.iterator(), rows::close, page, pageSize, () -> total);
+    }
+
+    /**
+     * 总数在 data 输出完之后才获取，可以在遍历时计数或者并行查询
+     * 输出时一定会调用 total，只是推迟，不会省掉 COUNT
+     * @param rows 行
+     * @param page 页码
+     * @param pageSize 每页数量
+     * @param total 总数
+     * @return StreamingCommonResponse
+     * @param <T>
+     */
+    public static <T> StreamingCommonResponse<T> success(Stream<T> rows, int page, int pageSize, LongSupplier total) {
+        return new StreamingCommonResponse<>(rows.iterator(), rows::close, page, pageSize, total);
+    }
+
+    /**
+     * data 输出完之后调用
+     */
+    @Override
+    public PageInfo getPageInfo() {
+        if (pageInfo == null && total != null) {
+            pageInfo = new PageInfo(page, pageSize, total.getAsLong());
+        }
+        return pageInfo;
+    }
+
+    @Override
+    public void close() {
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+}
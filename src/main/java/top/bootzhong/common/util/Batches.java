@@ -0,0 +1,398 @@
+package top.bootzhong.common.util;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * 大list的分批、合并
+ * ListUtil.batches、forEachBatch、concat、enrich 都走这里
+ * 分批不预先生成所有批次，RandomAccess的list每批是subList视图，其它list每批复制成ArrayList
+ * @author bootzhong
+ */
+final class Batches {
+    private Batches() {
+    }
+
+    static void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于0");
+        }
+    }
+
+    static int batchCount(int size, int batchSize) {
+        return (int) (((long) size + batchSize - 1) / batchSize);
+    }
+
+    /**
+     * 按批次遍历，可以切分给并行流
+     */
+    static <T> Spliterator<List<T>> spliterator(List<T> list, int batchSize) {
+        if (list == null || list.isEmpty()) {
+            return Spliterators.emptySpliterator();
+        }
+        if (list instanceof RandomAccess) {
+            return new SubListSpliterator<>(list, batchSize, 0, batchCount(list.size(), batchSize));
+        }
+        return new CopySpliterator<>(list.iterator(), batchSize, list.size());
+    }
+
+    /**
+     * 每批调用一次consumer，最多maxConcurrency个批次同时执行，规则同run
+     */
+    static <T> void forEach(List<T> list, int batchSize, Consumer<? super List<T>> consumer, Executor executor, int maxConcurrency) {
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        int batches = batchCount(list.size(), batchSize);
+        if (Math.min(maxConcurrency, batches) <= 1 || executor == null) {
+            spliterator(list, batchSize).forEachRemaining(consumer);
+            return;
+        }
+
+        //按下标取批次，非RandomAccess的list先复制一次
+        List<T> source = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        run(batches, i -> {
+            int from = (int) ((long) i * batchSize);
+            consumer.accept(source.subList(from, from + Math.min(batchSize, source.size() - from)));
+        }, executor, maxConcurrency);
+    }
+
+    /**
+     * 执行下标为 [0, tasks) 的任务，最多maxConcurrency个同时执行，全部执行完才返回
+     * 调用线程也执行任务，executor上最多提交maxConcurrency - 1个，按下标顺序领取
+     * 调用线程领完任务之后，还在executor队列里没有开始的提交直接作废，只等已经开始的，
+     * 所以在同一个线程池的线程里调用（比如@Async方法里）也不会因为等待排队的提交而互相卡死
+     * 任何一个任务抛出异常之后不再开始新的任务，等已经开始的任务结束之后抛出第一个异常
+     * executor为空或者maxConcurrency小于等于1时在调用线程中依次执行
+     */
+    static void run(int tasks, IntConsumer task, Executor executor, int maxConcurrency) {
+        int workers = executor == null ? 1 : Math.min(maxConcurrency, tasks);
+        if (workers <= 1) {
+            for (int i = 0; i < tasks; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable loop = () -> {
+            int i;
+            while (failure.get() == null && (i = next.getAndIncrement()) < tasks) {
+                try {
+                    task.accept(i);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        List<Worker> helpers = new ArrayList<>(workers - 1);
+        try {
+            for (int w = 1; w < workers; w++) {
+                Worker helper = new Worker(loop);
+                executor.execute(helper);
+                helpers.add(helper);
+            }
+        } catch (RuntimeException e) {
+            //线程池拒绝，已经提交的任务停止领取新的任务
+            failure.compareAndSet(null, e);
+        }
+        loop.run();
+        for (Worker helper : helpers) {
+            helper.cancelOrAwait();
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e != null) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 提交到executor上的领取任务的循环，开始执行和作废只有一个能成功
+     */
+    private static final class Worker implements Runnable {
+        private final Runnable loop;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Worker(Runnable loop) {
+            this.loop = loop;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                loop.run();
+            } finally {
+                done.complete(null);
+            }
+        }
+
+        /**
+         * 还没开始的作废，之后线程池执行到时直接返回；已经开始的等它结束
+         */
+        void cancelOrAwait() {
+            if (!claimed.compareAndSet(false, true)) {
+                done.join();
+            }
+        }
+    }
+
+    /**
+     * 按批次遍历的Iterable，每次遍历重新切分
+     */
+    static final class BatchIterable<T> implements Iterable<List<T>> {
+        private final List<T> list;
+
+        private final int batchSize;
+
+        BatchIterable(List<T> list, int batchSize) {
+            this.list = list;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public Iterator<List<T>> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator<List<T>> spliterator() {
+            return Batches.spliterator(list, batchSize);
+        }
+
+        @Override
+        public void forEach(Consumer<? super List<T>> action) {
+            spliterator().forEachRemaining(action);
+        }
+    }
+
+    /**
+     * RandomAccess的list，按批次下标切分，每批是subList视图
+     */
+    private static final class SubListSpliterator<T> implements Spliterator<List<T>> {
+        private final List<T> list;
+
+        private final int batchSize;
+
+        private int index;
+
+        private final int fence;
+
+        SubListSpliterator(List<T> list, int batchSize, int index, int fence) {
+            this.list = list;
+            this.batchSize = batchSize;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(batch(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super List<T>> action) {
+            for (int i = index; i < fence; i++) {
+                action.accept(batch(i));
+            }
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<List<T>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<List<T>> prefix = new SubListSpliterator<>(list, batchSize, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        private List<T> batch(int i) {
+            int from = (int) ((long) i * batchSize);
+            return list.subList(from, from + Math.min(batchSize, list.size() - from));
+        }
+    }
+
+    /**
+     * 其它list，按迭代器顺序每批复制成ArrayList，并行时由AbstractSpliterator按块切分
+     */
+    private static final class CopySpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+        private final Iterator<T> iterator;
+
+        private final int batchSize;
+
+        private int remaining;
+
+        CopySpliterator(Iterator<T> iterator, int batchSize, int size) {
+            super(batchCount(size, batchSize), ORDERED | SIZED | NONNULL);
+            this.iterator = iterator;
+            this.batchSize = batchSize;
+            this.remaining = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            List<T> batch = new ArrayList<>(Math.max(Math.min(batchSize, remaining), 1));
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+            remaining -= batch.size();
+            action.accept(batch);
+            return true;
+        }
+    }
+
+    /**
+     * 多个list首尾相连的视图，每个list都是RandomAccess时用RandomAccessConcatList，否则用ConcatList
+     */
+    static <T> List<T> concat(List<? extends T>[] parts) {
+        for (List<? extends T> part : parts) {
+            if (!(part instanceof RandomAccess)) {
+                return new ConcatList<>(parts);
+            }
+        }
+        return new RandomAccessConcatList<>(parts);
+    }
+
+    /**
+     * 多个list首尾相连的只读视图，不复制元素
+     * 按下标取值时二分查找所在的list，遍历时依次遍历每个list
+     * 有非RandomAccess的list时按下标取值要从头遍历那个list，所以不实现RandomAccess，调用方应该用迭代器
+     * 创建之后原来的list不能再增删元素
+     */
+    static class ConcatList<T> extends AbstractList<T> {
+        private final List<? extends T>[] parts;
+
+        /**
+         * 每个list在视图中的起始下标
+         */
+        private final int[] offsets;
+
+        private final int size;
+
+        ConcatList(List<? extends T>[] parts) {
+            this.parts = parts;
+            this.offsets = new int[parts.length];
+            long total = 0;
+            for (int i = 0; i < parts.length; i++) {
+                offsets[i] = (int) total;
+                total += parts[i].size();
+            }
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("合并之后的数量超过 Integer.MAX_VALUE");
+            }
+            this.size = (int) total;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int p = Arrays.binarySearch(offsets, index);
+            if (p < 0) {
+                p = -p - 2;
+            }
+            return parts[p].get(index - offsets[p]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int part;
+
+                private Iterator<? extends T> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext()) {
+                        if (part >= parts.length) {
+                            return false;
+                        }
+                        current = parts[part++].iterator();
+                    }
+                    return true;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            for (List<? extends T> part : parts) {
+                part.forEach(action);
+            }
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] result = new Object[size];
+            for (int i = 0; i < parts.length; i++) {
+                Object[] a = parts[i].toArray();
+                System.arraycopy(a, 0, result, offsets[i], a.length);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 每个list都是RandomAccess，按下标取值是O(log n)
+     */
+    static final class RandomAccessConcatList<T> extends ConcatList<T> implements RandomAccess {
+        RandomAccessConcatList(List<? extends T>[] parts) {
+            super(parts);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package top.bootzhong.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 预先计算好的日历表
+ * 保存范围内每个月的天数、第一天的 epochDay，月初、月末的天编号由此直接得到
+ * TimeUtil 中月初、月末、年初、每月天数等方法在范围内查表，范围外仍使用 Calendar 计算
+ * 默认范围 1970-2100，可通过系统属性 bootzhong.calendar-table.min-year / max-year 修改，
+ * 或调用 install 替换，install(null) 关闭查表，系统属性不正确时打印警告并使用默认范围
+ * @author bootzhong
+ */
+@Slf4j
+public final class CalendarTable {
+    public static final int DEFAULT_MIN_YEAR = 1970;
+    public static final int DEFAULT_MAX_YEAR = 2100;
+
+    private static volatile CalendarTable current = initial();
+
+    private final int minYear;
+
+    private final int maxYear;
+
+    /**
+     * 下标为 (year - minYear) * 12 + month - 1
+     */
+    private final byte[] lengths;
+
+    /**
+     * 每个月第一天的 epochDay，多一个元素存放范围结束后的第一天
+     */
+    private final int[] firstEpochDays;
+
+    /**
+     * 创建日历表
+     * @param minYear 开始年份，不能早于1583（之前为儒略历）
+     * @param maxYear 结束年份，包含
+     */
+    public CalendarTable(int minYear, int maxYear) {
+        if (minYear < 1583 || maxYear < minYear || maxYear > 9999) {
+            throw new IllegalArgumentException("日历表年份范围不正确：" + minYear + "-" + maxYear);
+        }
+        this.minYear = minYear;
+        this.maxYear = maxYear;
+        int months = (maxYear - minYear + 1) * 12;
+        this.lengths = new byte[months];
+        this.firstEpochDays = new int[months + 1];
+
+        int epochDay = (int) DayNumbers.epochDay(minYear, 1, 1);
+        for (int i = 0; i < months; i++) {
+            int mon = (minYear + i / 12) * 100 + i % 12 + 1;
+            int length = DayNumbers.lengthOfMonth(mon);
+            lengths[i] = (byte) length;
+            firstEpochDays[i] = epochDay;
+            epochDay += length;
+        }
+        firstEpochDays[months] = epochDay;
+    }
+
+    /**
+     * 按系统属性创建，类初始化时抛出异常会导致 TimeUtil 无法使用，所以这里不抛出
+     */
+    private static CalendarTable initial() {
+        String min = System.getProperty("bootzhong.calendar-table.min-year");
+        String max = System.getProperty("bootzhong.calendar-table.max-year");
+        if (min == null && max == null) {
+            return new CalendarTable(DEFAULT_MIN_YEAR, DEFAULT_MAX_YEAR);
+        }
+        try {
+            return new CalendarTable(min == null ? DEFAULT_MIN_YEAR : Integer.parseInt(min.trim()),
+                    max == null ? DEFAULT_MAX_YEAR : Integer.parseInt(max.trim()));
+        } catch (IllegalArgumentException e) {
+            log.warn("bootzhong.calendar-table.min-year / max-year 不正确（{} / {}），使用默认范围 {}-{}",
+                    min, max, DEFAULT_MIN_YEAR, DEFAULT_MAX_YEAR);
+            return new CalendarTable(DEFAULT_MIN_YEAR, DEFAULT_MAX_YEAR);
+        }
+    }
+
+    /**
+     * 当前使用的日历表，未启用时为 null
+     */
+    public static CalendarTable current() {
+        return current;
+    }
+
+    /**
+     * 替换当前使用的日历表
+     * @param table 日历表，传 null 关闭查表
+     */
+    public static void install(CalendarTable table) {
+        current = table;
+    }
+
+    public int getMinYear() {
+        return minYear;
+    }
+
+    public int getMaxYear() {
+        return maxYear;
+    }
+
+    /**
+     * 月编号是否在表的范围内
+     */
+    public boolean containsMon(int mon) {
+        int m = mon % 100;
+        int year = mon / 100;
+        return m >= 1 && m <= 12 && year >= minYear && year <= maxYear;
+    }
+
+    /**
+     * epochDay 是否在表的范围内
+     */
+    public boolean containsEpochDay(long epochDay) {
+        return epochDay >= firstEpochDays[0] && epochDay < firstEpochDays[lengths.length];
+    }
+
+    /**
+     * 月份的天数
+     * @param mon 范围内的月编号
+     */
+    public int lengthOfMonth(int mon) {
+        return lengths[index(mon)];
+    }
+
+    /**
+     * 月份第一天的天编号
+     * @param mon 范围内的月编号
+     */
+    public int firstDayOfMonth(int mon) {
+        index(mon);
+        return mon * 100 + 1;
+    }
+
+    /**
+     * 月份最后一天的天编号
+     * @param mon 范围内的月编号
+     */
+    public int lastDayOfMonth(int mon) {
+        return mon * 100 + lengths[index(mon)];
+    }
+
+    /**
+     * 月份第一天的 epochDay
+     * @param mon 范围内的月编号
+     */
+    public long firstEpochDayOfMonth(int mon) {
+        return firstEpochDays[index(mon)];
+    }
+
+    /**
+     * 月份最后一天的 epochDay
+     * @param mon 范围内的月编号
+     */
+    public long lastEpochDayOfMonth(int mon) {
+        return firstEpochDays[index(mon) + 1] - 1L;
+    }
+
+    /**
+     * epochDay 所在的月编号
+     * @param epochDay 范围内的 epochDay
+     */
+    public int monOfEpochDay(long epochDay) {
+        return monOfIndex(indexOfEpochDay(epochDay));
+    }
+
+    /**
+     * epochDay 转天编号
+     * @param epochDay 范围内的 epochDay
+     */
+    public int dayOfEpochDay(long epochDay) {
+        int i = indexOfEpochDay(epochDay);
+        return monOfIndex(i) * 100 + (int) (epochDay - firstEpochDays[i]) + 1;
+    }
+
+    private int index(int mon) {
+        if (!containsMon(mon)) {
+            throw new IllegalArgumentException(mon + "不在日历表范围内：" + minYear + "-" + maxYear);
+        }
+        return (mon / 100 - minYear) * 12 + mon % 100 - 1;
+    }
+
+    private int monOfIndex(int i) {
+        return (minYear + i / 12) * 100 + i % 12 + 1;
+    }
+
+    private int indexOfEpochDay(long epochDay) {
+        if (!containsEpochDay(epochDay)) {
+            throw new IllegalArgumentException(epochDay + "不在日历表范围内：" + minYear + "-" + maxYear);
+        }
+        //按平均月长估算后前后修正，最多移动一两步
+        int i = (int) ((epochDay - firstEpochDays[0]) * 12 / 365.2425);
+        if (i >= lengths.length) {
+            i = lengths.length - 1;
+        }
+        while (epochDay < firstEpochDays[i]) {
+            i--;
+        }
+        while (epochDay >= firstEpochDays[i + 1]) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,190 @@
+package top.bootzhong.common.util;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 多字段组合key的集合
+ * 直接保存各个字段取出来的值，用字段本身的hashCode/equals比较，不拼字符串
+ * 开放寻址，每个字段一列，添加元素时不产生新对象（扩容除外）
+ * 一个和两个字段时走专门的分支
+ * 非线程安全
+ * @param <T> 元素类型
+ * @author bootzhong
+ */
+final class CompositeKeySet<T> {
+    private static final int MIN_CAPACITY = 16;
+
+    private final Function<T, ?>[] funs;
+
+    /**
+     * 列存储 columns[字段][槽位]
+     */
+    private Object[][] columns;
+
+    private int[] hashes;
+
+    private boolean[] used;
+
+    private int size;
+
+    private int mask;
+
+    private int resizeAt;
+
+    /**
+     * 超过两个字段时复用的取值数组
+     */
+    private final Object[] scratch;
+
+    CompositeKeySet(Function<T, ?>[] funs, int expectedSize) {
+        this.funs = funs;
+        this.scratch = funs.length > 2 ? new Object[funs.length] : null;
+        int capacity = tableSize(expectedSize);
+        allocate(capacity);
+    }
+
+    /**
+     * 添加一个元素的组合key
+     * @param t 元素
+     * @return key已经存在时返回false
+     */
+    boolean add(T t) {
+        switch (funs.length) {
+            case 0:
+                return add0();
+            case 1:
+                return add1(funs[0].apply(t));
+            case 2:
+                return add2(funs[0].apply(t), funs[1].apply(t));
+            default:
+                return addN(t);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean add0() {
+        if (size > 0) {
+            return false;
+        }
+        size = 1;
+        return true;
+    }
+
+    private boolean add1(Object v0) {
+        Object[] c0 = columns[0];
+        int h = mix(Objects.hashCode(v0));
+        int i = h & mask;
+        while (used[i]) {
+            if (hashes[i] == h && Objects.equals(c0[i], v0)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        hashes[i] = h;
+        c0[i] = v0;
+        afterInsert();
+        return true;
+    }
+
+    private boolean add2(Object v0, Object v1) {
+        Object[] c0 = columns[0];
+        Object[] c1 = columns[1];
+        int h = mix(31 * Objects.hashCode(v0) + Objects.hashCode(v1));
+        int i = h & mask;
+        while (used[i]) {
+            if (hashes[i] == h && Objects.equals(c0[i], v0) && Objects.equals(c1[i], v1)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        hashes[i] = h;
+        c0[i] = v0;
+        c1[i] = v1;
+        afterInsert();
+        return true;
+    }
+
+    private boolean addN(T t) {
+        Object[] values = scratch;
+        int raw = 0;
+        for (int c = 0; c < funs.length; c++) {
+            values[c] = funs[c].apply(t);
+            raw = 31 * raw + Objects.hashCode(values[c]);
+        }
+        int h = mix(raw);
+        int i = h & mask;
+        while (used[i]) {
+            if (hashes[i] == h && slotEquals(i, values)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        hashes[i] = h;
+        for (int c = 0; c < funs.length; c++) {
+            columns[c][i] = values[c];
+        }
+        afterInsert();
+        return true;
+    }
+
+    private boolean slotEquals(int slot, Object[] values) {
+        for (int c = 0; c < values.length; c++) {
+            if (!Objects.equals(columns[c][slot], values[c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void afterInsert() {
+        if (++size > resizeAt) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        Object[][] oldColumns = columns;
+        int[] oldHashes = hashes;
+        boolean[] oldUsed = used;
+        allocate(oldHashes.length << 1);
+        for (int j = 0; j < oldHashes.length; j++) {
+            if (!oldUsed[j]) {
+                continue;
+            }
+            int i = oldHashes[j] & mask;
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            hashes[i] = oldHashes[j];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c][i] = oldColumns[c][j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        columns = new Object[funs.length][capacity];
+        hashes = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity >> 1;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int n = Math.max(MIN_CAPACITY, expectedSize * 2);
+        return n >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
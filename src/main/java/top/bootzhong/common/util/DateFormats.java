@@ -0,0 +1,60 @@
+package top.bootzhong.common.util;
+
+import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * SimpleDateFormat 缓存
+ * SimpleDateFormat 非线程安全且创建成本高（Calendar、DecimalFormat），这里按线程、按格式各缓存一个
+ * 仍然使用 SimpleDateFormat 是为了和原来的解析、格式化行为（宽松解析、时区取默认时区）保持一致
+ * 每个线程最多缓存 MAX_PATTERNS 个格式，超出按最近最少使用淘汰
+ * 解析带时区（z、Z）的字符串会修改 SimpleDateFormat 的时区，所以每次取出时重置为当前默认时区和宽松解析
+ * 默认 Locale 变化后清空当前线程的缓存，重新创建
+ * @author bootzhong
+ */
+final class DateFormats {
+    static final int MAX_PATTERNS = 32;
+
+    private static final ThreadLocal<Cache> CACHE = ThreadLocal.withInitial(Cache::new);
+
+    private DateFormats() {
+    }
+
+    /**
+     * 获取当前线程的格式化对象，只能在当前线程内使用，不要传给其他线程或保存起来
+     * @param pattern 格式
+     * @return SimpleDateFormat
+     */
+    static SimpleDateFormat get(String pattern) {
+        Cache cache = CACHE.get();
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (!locale.equals(cache.locale)) {
+            cache.formats.clear();
+            cache.locale = locale;
+        }
+        SimpleDateFormat format = cache.formats.get(pattern);
+        if (format == null) {
+            //格式非法时这里抛出IllegalArgumentException，和直接new一致
+            format = new SimpleDateFormat(pattern, locale);
+            cache.formats.put(pattern, format);
+        } else {
+            format.setTimeZone(TimeZone.getDefault());
+            format.setLenient(true);
+        }
+        return format;
+    }
+
+    private static final class Cache {
+        private final Map<String, SimpleDateFormat> formats = new LinkedHashMap<String, SimpleDateFormat>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SimpleDateFormat> eldest) {
+                return size() > MAX_PATTERNS;
+            }
+        };
+
+        private Locale locale;
+    }
+}
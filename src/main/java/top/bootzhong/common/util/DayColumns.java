@@ -0,0 +1,215 @@
+package top.bootzhong.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.IntStream;
+
+/**
+ * 整列时间的批量转换，用于导出等场景
+ * 时区只取一次；连续相同的天（排好序的数据很常见）直接复用上一次的结果
+ * 复用时每次换天要多算当天的起止时间，比直接转换慢好几倍，所以按 ADAPT_WINDOW 个一段统计，
+ * 上一段连续相同的比例低于 7/8（乱序、跨度很大的数据）时下一段直接转换
+ * 数组较大时可以选择并行，每段各自复用结果
+ * @author bootzhong
+ */
+public final class DayColumns {
+    /**
+     * 并行时每段的最小长度
+     */
+    static final int PARALLEL_CHUNK = 1 << 14;
+
+    /**
+     * 统计连续相同比例的段长度
+     */
+    static final int ADAPT_WINDOW = 256;
+
+    /**
+     * yyyy-MM-dd 的长度
+     */
+    public static final int DAY_STRING_LENGTH = 10;
+
+    private DayColumns() {
+    }
+
+    /**
+     * 时间戳转天编号
+     * @param epochMillis 毫秒时间戳
+     * @return 天编号，和 TimeUtil.toDay 一致
+     */
+    public static int[] toDays(long[] epochMillis) {
+        return toDays(epochMillis, TimeZone.getDefault(), false);
+    }
+
+    /**
+     * 时间戳转天编号
+     * @param epochMillis 毫秒时间戳
+     * @param zone 时区
+     * @param parallel 是否并行
+     * @return 天编号
+     */
+    public static int[] toDays(long[] epochMillis, TimeZone zone, boolean parallel) {
+        int[] days = new int[epochMillis.length];
+        if (parallel && epochMillis.length >= PARALLEL_CHUNK * 2) {
+            int chunks = (epochMillis.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            //TimeZone 不保证线程安全，每段各用一份
+            IntStream.range(0, chunks).parallel().forEach(c -> toDays(epochMillis, days,
+                    c * PARALLEL_CHUNK, Math.min(epochMillis.length, (c + 1) * PARALLEL_CHUNK), (TimeZone) zone.clone()));
+        } else {
+            toDays(epochMillis, days, 0, epochMillis.length, zone);
+        }
+        return days;
+    }
+
+    /**
+     * Date 列转天编号，null 转为 0
+     * @param dates 时间
+     * @return 天编号
+     */
+    public static int[] toDays(List<Date> dates) {
+        long[] epochMillis = new long[dates.size()];
+        boolean[] nulls = null;
+        int i = 0;
+        for (Date date : dates) {
+            if (date == null) {
+                if (nulls == null) {
+                    nulls = new boolean[epochMillis.length];
+                }
+                nulls[i] = true;
+            } else {
+                epochMillis[i] = date.getTime();
+            }
+            i++;
+        }
+        int[] days = toDays(epochMillis);
+        if (nulls != null) {
+            for (int j = 0; j < days.length; j++) {
+                if (nulls[j]) {
+                    days[j] = 0;
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * 天编号转 yyyy-MM-dd，和 TimeUtil.toDayString(Integer) 一致
+     * 连续相同的天返回同一个字符串对象
+     * @param days 天编号
+     * @return 日期字符串
+     */
+    public static String[] toDayStrings(int[] days) {
+        String[] result = new String[days.length];
+        byte[] buf = new byte[DAY_STRING_LENGTH];
+        int last = 0;
+        String lastString = null;
+        for (int i = 0; i < days.length; i++) {
+            int day = days[i];
+            if (lastString == null || day != last) {
+                lastString = writeDay(day, buf, 0)
+                        ? new String(buf, StandardCharsets.US_ASCII)
+                        : TimeUtil.toDayString(day);
+                last = day;
+            }
+            result[i] = lastString;
+        }
+        return result;
+    }
+
+    /**
+     * 天编号转 yyyy-MM-dd 的 ASCII 字节，每个日期固定 10 个字节，连续存放
+     * 超出 1583-9999 年范围的日期无法用10个字节表示，抛出 IllegalArgumentException
+     * @param days 天编号
+     * @return 字节数组，长度为 days.length * 10
+     */
+    public static byte[] toDayBytes(int[] days) {
+        byte[] result = new byte[days.length * DAY_STRING_LENGTH];
+        byte[] last = new byte[DAY_STRING_LENGTH];
+        for (int i = 0; i < days.length; i++) {
+            if (i == 0 || days[i] != days[i - 1]) {
+                if (!writeDay(days[i], last, 0)) {
+                    throw new IllegalArgumentException(days[i] + "无法转换为yyyy-MM-dd");
+                }
+            }
+            //10个字节直接逐个复制，比 System.arraycopy 的调用开销小
+            int offset = i * DAY_STRING_LENGTH;
+            for (int j = 0; j < DAY_STRING_LENGTH; j++) {
+                result[offset + j] = last[j];
+            }
+        }
+        return result;
+    }
+
+    private static void toDays(long[] epochMillis, int[] days, int from, int to, TimeZone zone) {
+        //当前这一天的时间范围 [dayStart, dayEnd)
+        long dayStart = 1L;
+        long dayEnd = 0L;
+        int day = 0;
+        boolean reuse = true;
+        for (int start = from; start < to; start += ADAPT_WINDOW) {
+            int end = Math.min(to, start + ADAPT_WINDOW);
+            int repeats = 0;
+            if (reuse) {
+                for (int i = start; i < end; i++) {
+                    long millis = epochMillis[i];
+                    if (millis >= dayStart && millis < dayEnd) {
+                        days[i] = day;
+                        repeats++;
+                        continue;
+                    }
+                    day = DayNumbers.toDay(millis, zone);
+                    long epochDay = DayNumbers.localEpochDay(millis, zone);
+                    dayStart = DayNumbers.startOfLocalDay(epochDay, zone);
+                    dayEnd = DayNumbers.startOfLocalDay(epochDay + 1, zone);
+                    if (dayStart == Long.MIN_VALUE || dayEnd == Long.MIN_VALUE) {
+                        //当天有时区变化，不复用
+                        dayStart = 1L;
+                        dayEnd = 0L;
+                    }
+                    days[i] = day;
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    days[i] = DayNumbers.toDay(epochMillis[i], zone);
+                    if (i > from && days[i] == days[i - 1]) {
+                        repeats++;
+                    }
+                }
+            }
+            reuse = repeats * 8 >= (end - start) * 7;
+        }
+    }
+
+    /**
+     * 写入 yyyy-MM-dd，天编号先按宽松规则规整
+     * @return 年份不在 1583-9999 之间时返回 false
+     */
+    private static boolean writeDay(int day, byte[] buf, int offset) {
+        if (day < 15830101 || day > 99999999) {
+            return false;
+        }
+        long epochDay = DayNumbers.toEpochDay(day);
+        if (epochDay < DayNumbers.MIN_EPOCH_DAY) {
+            return false;
+        }
+        int normalized = DayNumbers.fromEpochDay(epochDay);
+        int year = normalized / 10000;
+        if (year > 9999) {
+            return false;
+        }
+        int mon = normalized / 100 % 100;
+        int d = normalized % 100;
+        buf[offset] = (byte) ('0' + year / 1000);
+        buf[offset + 1] = (byte) ('0' + year / 100 % 10);
+        buf[offset + 2] = (byte) ('0' + year / 10 % 10);
+        buf[offset + 3] = (byte) ('0' + year % 10);
+        buf[offset + 4] = '-';
+        buf[offset + 5] = (byte) ('0' + mon / 10);
+        buf[offset + 6] = (byte) ('0' + mon % 10);
+        buf[offset + 7] = '-';
+        buf[offset + 8] = (byte) ('0' + d / 10);
+        buf[offset + 9] = (byte) ('0' + d % 10);
+        return true;
+    }
+}
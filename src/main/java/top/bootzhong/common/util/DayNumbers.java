@@ -0,0 +1,377 @@
+package top.bootzhong.common.util;
+
+import lombok.SneakyThrows;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TimeZone;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 天编号、月编号（20210809、202108）与时间之间的换算
+ * 直接按公历算，不经过 SimpleDateFormat 和字符串，返回基本类型，不装箱
+ * 结果和 TimeUtil 原来 SimpleDateFormat 的结果一致：
+ * 1. 使用时区（默认为系统默认时区）的本地日期
+ * 2. 解析时宽松处理，如 20211301 解析为 2022-01-01
+ * 3. 1583年以前（儒略历）、位数不对、夏令时跳过零点等情况退回 SimpleDateFormat
+ * 不带时区的方法每次调用都取一次默认时区（TimeZone.getDefault 会复制一份，约十几纳秒），这样 TimeZone.setDefault 之后立即生效
+ * 循环里大量转换时先取一次时区，调用带时区的方法，或者用 DayColumns 整列转换
+ * @author bootzhong
+ */
+public final class DayNumbers {
+    public static final long MILLIS_PER_DAY = 86400000L;
+
+    /**
+     * 1583-01-01 的 epochDay，早于这一天 GregorianCalendar 会用儒略历
+     */
+    static final long MIN_EPOCH_DAY = -141349L;
+
+    private static final int MIN_DAY = 15830101;
+    private static final int MAX_DAY = 99999999;
+    private static final int MIN_MON = 158301;
+    private static final int MAX_MON = 999999;
+
+    private static final String DAY_NUM_FORMAT = "yyyyMMdd";
+    private static final String MONTH_NUM_FORMAT = "yyyyMM";
+
+    private DayNumbers() {
+    }
+
+    /**
+     * 转换成天编号，如 20210809
+     * @param epochMillis 毫秒时间戳
+     * @return 天编号
+     */
+    public static int toDay(long epochMillis) {
+        return toDay(epochMillis, TimeZone.getDefault());
+    }
+
+    public static int toDay(long epochMillis, TimeZone zone) {
+        long epochDay = localEpochDay(epochMillis, zone);
+        if (epochDay < MIN_EPOCH_DAY) {
+            return legacyFormat(epochMillis, DAY_NUM_FORMAT, zone);
+        }
+        return fromEpochDay(epochDay);
+    }
+
+    public static int toDay(Date date) {
+        return toDay(date.getTime());
+    }
+
+    public static int toDay(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * 转换成月编号，如 202108
+     * @param epochMillis 毫秒时间戳
+     * @return 月编号
+     */
+    public static int toMon(long epochMillis) {
+        return toMon(epochMillis, TimeZone.getDefault());
+    }
+
+    public static int toMon(long epochMillis, TimeZone zone) {
+        long epochDay = localEpochDay(epochMillis, zone);
+        if (epochDay < MIN_EPOCH_DAY) {
+            return legacyFormat(epochMillis, MONTH_NUM_FORMAT, zone);
+        }
+        return fromEpochDay(epochDay) / 100;
+    }
+
+    public static int toMon(Date date) {
+        return toMon(date.getTime());
+    }
+
+    public static int toMon(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * 天编号解析成当天零点的时间戳
+     * @param day 天编号
+     * @return 毫秒时间戳
+     */
+    public static long parseDay(int day) {
+        return parseDay(day, TimeZone.getDefault());
+    }
+
+    public static long parseDay(int day, TimeZone zone) {
+        if (day < MIN_DAY || day > MAX_DAY) {
+            return legacyParse(day, DAY_NUM_FORMAT, zone);
+        }
+        long millis = startOfLocalDay(epochDay(day / 10000, day / 100 % 100, day % 100), zone);
+        return millis == Long.MIN_VALUE ? legacyParse(day, DAY_NUM_FORMAT, zone) : millis;
+    }
+
+    /**
+     * 月编号解析成当月第一天零点的时间戳
+     * @param mon 月编号
+     * @return 毫秒时间戳
+     */
+    public static long parseMon(int mon) {
+        return parseMon(mon, TimeZone.getDefault());
+    }
+
+    public static long parseMon(int mon, TimeZone zone) {
+        if (mon < MIN_MON || mon > MAX_MON) {
+            return legacyParse(mon, MONTH_NUM_FORMAT, zone);
+        }
+        long millis = startOfLocalDay(epochDay(mon / 100, mon % 100, 1), zone);
+        return millis == Long.MIN_VALUE ? legacyParse(mon, MONTH_NUM_FORMAT, zone) : millis;
+    }
+
+    /**
+     * 天编号转 LocalDate，不做宽松处理
+     */
+    public static LocalDate toLocalDate(int day) {
+        return LocalDate.of(day / 10000, day / 100 % 100, day % 100);
+    }
+
+    /**
+     * 天编号转 epochDay（1970-01-01 为 0），月、日超出范围时顺延
+     */
+    public static long toEpochDay(int day) {
+        return epochDay(day / 10000, day / 100 % 100, day % 100);
+    }
+
+    /**
+     * epochDay 转天编号
+     * @param epochDay 1970-01-01 为 0
+     * @return 天编号
+     */
+    public static int fromEpochDay(long epochDay) {
+        //Howard Hinnant civil_from_days，以3月1日为一年的开始
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int d = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int m = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int y = (int) (yoe + era * 400 + (m <= 2 ? 1 : 0));
+        return y * 10000 + m * 100 + d;
+    }
+
+    /**
+     * 两个天编号之间相差的天数 end - start
+     */
+    public static int daysBetween(int startDay, int endDay) {
+        return (int) (toEpochDay(endDay) - toEpochDay(startDay));
+    }
+
+    /**
+     * 两个月编号之间相差的月数 end - start
+     */
+    public static int monthsBetween(int startMon, int endMon) {
+        return monthIndex(endMon) - monthIndex(startMon);
+    }
+
+    /**
+     * 天编号加减天数
+     */
+    public static int plusDays(int day, int days) {
+        return fromEpochDay(toEpochDay(day) + days);
+    }
+
+    /**
+     * 天编号的下一天，不经过 epochDay
+     */
+    public static int nextDay(int day) {
+        int d = day % 100;
+        int mon = day / 100;
+        if (d < lengthOfMonth(mon)) {
+            return day + 1;
+        }
+        return nextMon(mon) * 100 + 1;
+    }
+
+    /**
+     * 月编号加减月数
+     */
+    public static int plusMonths(int mon, int months) {
+        return fromMonthIndex(monthIndex(mon) + months);
+    }
+
+    /**
+     * 月编号的下一个月
+     */
+    public static int nextMon(int mon) {
+        return mon % 100 >= 12 ? (mon / 100 + 1) * 100 + 1 : mon + 1;
+    }
+
+    /**
+     * 月编号对应月份的天数
+     */
+    public static int lengthOfMonth(int mon) {
+        int m = mon % 100;
+        if (m == 2) {
+            return isLeapYear(mon / 100) ? 29 : 28;
+        }
+        return m == 4 || m == 6 || m == 9 || m == 11 ? 30 : 31;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * 天编号所在月的第一天
+     */
+    public static int firstDayOfMonth(int day) {
+        return day / 100 * 100 + 1;
+    }
+
+    /**
+     * 天编号所在月的最后一天
+     */
+    public static int lastDayOfMonth(int day) {
+        int mon = day / 100;
+        return mon * 100 + lengthOfMonth(mon);
+    }
+
+    /**
+     * [startDay, endDay] 之间的每一天，包含两端
+     * 按 epochDay 生成，可拆分，可用于并行流
+     * @param startDay 开始天编号
+     * @param endDay 结束天编号
+     * @return 天编号流，start大于end时为空
+     */
+    public static IntStream days(int startDay, int endDay) {
+        return LongStream.rangeClosed(toEpochDay(startDay), toEpochDay(endDay)).mapToInt(DayNumbers::fromEpochDay);
+    }
+
+    /**
+     * [startMon, endMon] 之间的每个月，包含两端，可用于并行流
+     * @param startMon 开始月编号
+     * @param endMon 结束月编号
+     * @return 月编号流，start大于end时为空
+     */
+    public static IntStream months(int startMon, int endMon) {
+        return IntStream.rangeClosed(monthIndex(startMon), monthIndex(endMon)).map(DayNumbers::fromMonthIndex);
+    }
+
+    /**
+     * 按天遍历 [startDay, endDay]，逐天递增，不分配对象
+     */
+    public static void forEachDay(int startDay, int endDay, IntConsumer consumer) {
+        for (int day = startDay; day <= endDay; day = nextDay(day)) {
+            consumer.accept(day);
+        }
+    }
+
+    /**
+     * 按天遍历的迭代器 [startDay, endDay]
+     */
+    public static PrimitiveIterator.OfInt dayIterator(int startDay, int endDay) {
+        return new PrimitiveIterator.OfInt() {
+            private int next = startDay;
+
+            @Override
+            public boolean hasNext() {
+                return next <= endDay;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next > endDay) {
+                    throw new NoSuchElementException();
+                }
+                int day = next;
+                next = nextDay(day);
+                return day;
+            }
+        };
+    }
+
+    /**
+     * 月编号转从公元0年1月开始的月序号
+     */
+    static int monthIndex(int mon) {
+        return mon / 100 * 12 + mon % 100 - 1;
+    }
+
+    static int fromMonthIndex(int index) {
+        return Math.floorDiv(index, 12) * 100 + Math.floorMod(index, 12) + 1;
+    }
+
+    /**
+     * 年月日转 epochDay，月从1开始，月、日超出范围时顺延（和宽松的 Calendar 一致）
+     */
+    static long epochDay(int year, int month, int dayOfMonth) {
+        //year 最多来自 int / 100，乘以 12 不会溢出
+        int months = year * 12 + (month - 1);
+        long y = Math.floorDiv(months, 12);
+        int m = Math.floorMod(months, 12) + 1;
+        //Howard Hinnant days_from_civil
+        y -= m <= 2 ? 1 : 0;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468 + (dayOfMonth - 1);
+    }
+
+    /**
+     * 时间戳在指定时区的本地 epochDay
+     */
+    static long localEpochDay(long epochMillis, TimeZone zone) {
+        return Math.floorDiv(epochMillis + zone.getOffset(epochMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * 指定时区下某天零点的时间戳，无法确定时返回 Long.MIN_VALUE
+     */
+    static long startOfLocalDay(long epochDay, TimeZone zone) {
+        return localToUtc(epochDay * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * 把时间戳换到另一天，保留本地时分秒毫秒（和 Calendar 设置年月日的效果一致），无法确定时返回 Long.MIN_VALUE
+     */
+    static long withLocalEpochDay(long epochMillis, long epochDay, TimeZone zone) {
+        long millisOfDay = Math.floorMod(epochMillis + zone.getOffset(epochMillis), MILLIS_PER_DAY);
+        return localToUtc(epochDay * MILLIS_PER_DAY + millisOfDay, zone);
+    }
+
+    /**
+     * 本地时间（按 UTC 计的毫秒数）转时间戳
+     * 前后两天内有时区偏移变化（夏令时切换、改时区）时本地时间可能不存在或有歧义，返回 Long.MIN_VALUE 交给 Calendar 处理
+     */
+    static long localToUtc(long localMillis, TimeZone zone) {
+        if (Math.floorDiv(localMillis, MILLIS_PER_DAY) < MIN_EPOCH_DAY) {
+            return Long.MIN_VALUE;
+        }
+        int offset = zone.getOffset(localMillis - zone.getRawOffset());
+        long utc = localMillis - offset;
+        if (zone.getOffset(utc) != offset
+                || zone.getOffset(utc - 2 * MILLIS_PER_DAY) != offset
+                || zone.getOffset(utc + 2 * MILLIS_PER_DAY) != offset) {
+            return Long.MIN_VALUE;
+        }
+        return utc;
+    }
+
+    private static int legacyFormat(long epochMillis, String format, TimeZone zone) {
+        SimpleDateFormat sdf = new SimpleDateFormat(format);
+        sdf.setTimeZone(zone);
+        return Integer.parseInt(sdf.format(new Date(epochMillis)));
+    }
+
+    @SneakyThrows
+    private static long legacyParse(int number, String format, TimeZone zone) {
+        String source = String.valueOf(number);
+        if (format.length() != source.length()) {
+            throw new IllegalArgumentException(source + "时间格式不符合：" + format);
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat(format);
+        sdf.setTimeZone(zone);
+        return sdf.parse(source).getTime();
+    }
+}
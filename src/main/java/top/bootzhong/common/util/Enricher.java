@@ -0,0 +1,209 @@
+package top.bootzhong.common.util;
+
+import top.bootzhong.common.cache.LookupCache;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 批量查询并匹配设置，由ListUtil.enrich创建
+ * 每个数据源从t中取出key去重，按batchSize分批调用loader，每批查询回来就设置到对应的t上
+ * 所有数据源的批次放在一起执行，最多maxConcurrency批同时查询，总耗时接近最慢的一批，而不是所有查询之和
+ * 匹配规则同ListUtil.matchAndSet：key为空的项不匹配，每个t只取r中第一个匹配上的项，不属于本批key的r忽略
+ * 非线程安全，run之前配置好
+ * @param <T> 目标集合
+ * @author bootzhong
+ * @apiNote 使用实例
+ *   ListUtil.enrich(orders)
+ *           .by(Order::getCustomerId, customerMapper::selectByIds, Customer::getId, (o, c) -> o.setCustomerName(c.getName()))
+ *           .by(Order::getSkuId, skuClient::listByIds, Sku::getId, Order::setSku)
+ *           .batchSize(200)
+ *           .executor(taskExecutor, 8)
+ *           .run();
+ */
+public final class Enricher<T> {
+    /**
+     * 默认每批的key数量
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final Collection<T> targets;
+
+    private final List<Source<T, ?, ?>> sources = new ArrayList<>();
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private Executor executor;
+
+    private int maxConcurrency = 1;
+
+    Enricher(Collection<T> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * 增加一个数据源
+     * @param ft t的匹配字段
+     * @param loader 按一批key查询r，返回空时这批不设置
+     * @param fr r的匹配字段
+     * @param fs 设置的方法，设置了executor时会被多个线程同时调用，但同一个数据源对同一个t只会调用一次
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     */
+    public <R, M> Enricher<T> by(Function<T, M> ft, Function<List<M>, ? extends Collection<R>> loader, Function<R, M> fr,
+                                 BiConsumer<T, R> fs) {
+        sources.add(new Source<>(Objects.requireNonNull(ft), Objects.requireNonNull(loader), Objects.requireNonNull(fr),
+                Objects.requireNonNull(fs)));
+        return this;
+    }
+
+    /**
+     * 增加一个带缓存的数据源，每批key先查缓存，只有缓存中没有的key调用loader，规则同ListUtil.matchAndSet的缓存版本
+     * @param cache 缓存，见LookupCacheManager
+     */
+    public <R, M> Enricher<T> by(Function<T, M> ft, LookupCache<M, R> cache, Function<List<M>, ? extends Collection<R>> loader,
+                                 Function<R, M> fr, BiConsumer<T, R> fs) {
+        Objects.requireNonNull(cache);
+        Objects.requireNonNull(loader);
+        Objects.requireNonNull(fr);
+        return by(ft, keys -> cache.getAll(keys, missing -> {
+            Collection<R> r = loader.apply(missing);
+            return r == null ? Collections.emptyMap() : HashJoin.index(r, fr);
+        }).values(), fr, fs);
+    }
+
+    /**
+     * @param batchSize 每批的key数量，必须大于0，默认DEFAULT_BATCH_SIZE
+     */
+    public Enricher<T> batchSize(int batchSize) {
+        Batches.checkBatchSize(batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * 不设置时在调用线程中依次查询
+     * loader一般是查库、RPC，不要用ForkJoinPool.commonPool()
+     * 可以是调用线程所在的线程池（比如@Async方法里用applicationTaskExecutor），排队没开始的查询由调用线程执行，不会互相等待
+     * @param executor 执行查询的线程池，调用线程也会执行查询
+     * @param maxConcurrency 最多同时查询的批次数量
+     */
+    public Enricher<T> executor(Executor executor, int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * 执行所有查询并设置，全部执行完才返回
+     * 某一批抛出异常之后不再开始新的批次，等已经开始的批次结束后抛出第一个异常，已经设置的不会回滚
+     */
+    public void run() {
+        if (targets == null || targets.isEmpty() || sources.isEmpty()) {
+            return;
+        }
+        Object[] array = targets.toArray();
+        List<Batch<?, ?, ?>> batches = new ArrayList<>();
+        for (Source<T, ?, ?> source : sources) {
+            source.plan(array, batchSize, batches);
+        }
+        Batches.run(batches.size(), i -> batches.get(i).load(), executor, maxConcurrency);
+    }
+
+    private static final class Source<T, R, M> {
+        private final Function<T, M> ft;
+
+        private final Function<List<M>, ? extends Collection<R>> loader;
+
+        private final Function<R, M> fr;
+
+        private final BiConsumer<T, R> fs;
+
+        Source(Function<T, M> ft, Function<List<M>, ? extends Collection<R>> loader, Function<R, M> fr, BiConsumer<T, R> fs) {
+            this.ft = ft;
+            this.loader = loader;
+            this.fr = fr;
+            this.fs = fs;
+        }
+
+        /**
+         * key去重，按第一次出现的顺序分批
+         * 同一个key有多个t时用链表串起来，查询期间只读
+         */
+        @SuppressWarnings("unchecked")
+        void plan(Object[] targets, int batchSize, List<Batch<?, ?, ?>> batches) {
+            Map<M, Integer> heads = new LinkedHashMap<>(HashJoin.capacity(targets.length));
+            int[] next = new int[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                M key = ft.apply((T) targets[i]);
+                if (key != null) {
+                    Integer head = heads.put(key, i);
+                    next[i] = head == null ? -1 : head;
+                }
+            }
+            if (heads.isEmpty()) {
+                return;
+            }
+
+            Chains<T, M> chains = new Chains<>((T[]) targets, heads, next);
+            List<M> keys = new ArrayList<>(heads.keySet());
+            for (List<M> batch : ListUtil.split(keys, batchSize)) {
+                batches.add(new Batch<>(this, chains, batch));
+            }
+        }
+    }
+
+    /**
+     * key -> t的链表
+     */
+    private static final class Chains<T, M> {
+        private final T[] targets;
+
+        private final Map<M, Integer> heads;
+
+        private final int[] next;
+
+        Chains(T[] targets, Map<M, Integer> heads, int[] next) {
+            this.targets = targets;
+            this.heads = heads;
+            this.next = next;
+        }
+    }
+
+    private static final class Batch<T, R, M> {
+        private final Source<T, R, M> source;
+
+        private final Chains<T, M> chains;
+
+        private final List<M> keys;
+
+        Batch(Source<T, R, M> source, Chains<T, M> chains, List<M> keys) {
+            this.source = source;
+            this.chains = chains;
+            this.keys = keys;
+        }
+
+        void load() {
+            Collection<R> rs = source.loader.apply(keys);
+            if (rs == null || rs.isEmpty()) {
+                return;
+            }
+            //每个key只取第一个r，不属于本批的key忽略，避免和其它批次重复设置
+            Set<M> pending = new HashSet<>(keys);
+            for (R r : rs) {
+                M key = r == null ? null : source.fr.apply(r);
+                if (key == null || !pending.remove(key)) {
+                    continue;
+                }
+                for (int i = chains.heads.get(key); i >= 0; i = chains.next[i]) {
+                    source.fs.accept(chains.targets[i], r);
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+            }
+        }
+    }
+}
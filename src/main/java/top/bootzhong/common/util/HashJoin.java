@@ -0,0 +1,316 @@
+package top.bootzhong.common.util;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 基于哈希表的集合匹配
+ * ListUtil.matchAndSet 按key匹配的重载都走这里
+ * 规则和原来的嵌套循环保持一致：
+ * 1. 每个t只取r中第一个匹配上的项（按r的遍历顺序）
+ * 2. key为空的项不匹配
+ * 3. fs按t的遍历顺序调用
+ * @author bootzhong
+ */
+final class HashJoin {
+    /**
+     * r小于等于这个数量时直接循环，建表不划算
+     */
+    static final int NESTED_LOOP_THRESHOLD = 8;
+
+    /**
+     * 并行时每个任务至少处理的t数量
+     */
+    static final int MIN_PARALLEL_BATCH = 1024;
+
+    private HashJoin() {
+    }
+
+    /**
+     * 匹配两个集合，每个key只保留r中第一个出现的项
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 匹配成功之后执行的操作
+     */
+    static <T, R, M> void join(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T, R> fs) {
+        if (t == null || r == null || t.isEmpty() || r.isEmpty()) {
+            return;
+        }
+
+        if (r.size() <= NESTED_LOOP_THRESHOLD) {
+            nestedLoop(t, r, ft, fr, fs);
+        } else if (r.size() <= t.size()) {
+            probe(t, ft, index(r, fr), fs);
+        } else {
+            joinIndexTargets(t, r, ft, fr, fs);
+        }
+    }
+
+    /**
+     * 并行匹配两个集合
+     * r建一次只读索引，t切分到executor上并行探测，匹配结果和join一致
+     * t的数量小于threshold时直接走join
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 匹配成功之后执行的操作，会被多个线程同时调用
+     * @param executor 执行的线程池，ForkJoinPool会用分治任务
+     * @param threshold 并行的最小数量
+     */
+    @SuppressWarnings("unchecked")
+    static <T, R, M> void parallelJoin(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T, R> fs,
+                                       Executor executor, int threshold) {
+        if (t == null || r == null || t.isEmpty() || r.isEmpty()) {
+            return;
+        }
+        if (t.size() < Math.max(threshold, 1)) {
+            join(t, r, ft, fr, fs);
+            return;
+        }
+
+        Map<M, R> index = index(r, fr);
+        T[] targets = (T[]) t.toArray();
+        if (executor instanceof ForkJoinPool) {
+            ForkJoinPool pool = (ForkJoinPool) executor;
+            int batch = batchSize(targets.length, pool.getParallelism());
+            pool.invoke(new ProbeTask<>(targets, 0, targets.length, batch, ft, index, fs));
+            return;
+        }
+
+        int batch = batchSize(targets.length, Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(targets.length / batch + 1);
+        for (int from = 0; from < targets.length; from += batch) {
+            int start = from;
+            int end = Math.min(from + batch, targets.length);
+            futures.add(CompletableFuture.runAsync(() -> probe(targets, start, end, ft, index, fs), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一对多匹配，r按key分组一次，每个t拿到自己key对应的列表
+     * 组内保持r的顺序，fs按t的遍历顺序调用，key为空的项不匹配
+     * 同一个key有多个t时，第一个t拿到分组的列表，后面的t拿到副本，互不影响
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param immutableEmpty 没有匹配上的t是否设置共享的不可变空列表，为false时设置新的ArrayList
+     */
+    static <T, R, M> void groupJoin(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
+                                    BiConsumer<T, List<R>> fs, boolean immutableEmpty) {
+        if (t == null || t.isEmpty()) {
+            return;
+        }
+
+        Map<M, Group<R>> groups = new HashMap<>(capacity(r == null ? 0 : Math.min(r.size(), t.size())));
+        if (r != null) {
+            for (R b : r) {
+                M key = fr.apply(b);
+                if (key != null) {
+                    groups.computeIfAbsent(key, k -> new Group<>()).rows.add(b);
+                }
+            }
+        }
+
+        for (T a : t) {
+            M key = ft.apply(a);
+            Group<R> group = key == null ? null : groups.get(key);
+            if (group == null) {
+                fs.accept(a, immutableEmpty ? Collections.emptyList() : new ArrayList<>());
+            } else if (group.assigned) {
+                fs.accept(a, new ArrayList<>(group.rows));
+            } else {
+                group.assigned = true;
+                fs.accept(a, group.rows);
+            }
+        }
+    }
+
+    /**
+     * 按key建立索引，相同key只保留第一个
+     * 空key不进索引
+     * @param r 资源集合
+     * @param fr r的匹配字段
+     * @return 只读使用的索引
+     */
+    static <R, M> Map<M, R> index(Collection<R> r, Function<R, M> fr) {
+        Map<M, R> index = new HashMap<>(capacity(r.size()));
+        for (R b : r) {
+            M key = fr.apply(b);
+            if (key != null) {
+                index.putIfAbsent(key, b);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 用t去探测r的索引
+     */
+    static <T, R, M> void probe(Iterable<T> t, Function<T, M> ft, Map<M, R> index, BiConsumer<T, R> fs) {
+        for (T a : t) {
+            M key = ft.apply(a);
+            if (key == null) {
+                continue;
+            }
+            R b = index.get(key);
+            if (b != null) {
+                fs.accept(a, b);
+            }
+        }
+    }
+
+    static <T, R, M> void probe(T[] t, int from, int to, Function<T, M> ft, Map<M, R> index, BiConsumer<T, R> fs) {
+        for (int i = from; i < to; i++) {
+            T a = t[i];
+            M key = ft.apply(a);
+            if (key == null) {
+                continue;
+            }
+            R b = index.get(key);
+            if (b != null) {
+                fs.accept(a, b);
+            }
+        }
+    }
+
+    static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+    }
+
+    /**
+     * r很小的时候直接循环，每个t只取一次key
+     */
+    private static <T, R, M> void nestedLoop(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T, R> fs) {
+        for (T a : t) {
+            M key = ft.apply(a);
+            if (key == null) {
+                continue;
+            }
+            for (R b : r) {
+                if (key.equals(fr.apply(b))) {
+                    fs.accept(a, b);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * t比r小的时候给t建索引，用r去探测
+     * 匹配结果先按t的下标记下来，最后按t的顺序统一回调
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, R, M> void joinIndexTargets(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T, R> fs) {
+        Object[] targets = t.toArray();
+        //key -> t的下标，同一个key有多个t时用链表串起来
+        Map<M, Integer> heads = new HashMap<>(capacity(targets.length));
+        int[] next = new int[targets.length];
+        for (int i = targets.length - 1; i >= 0; i--) {
+            M key = ft.apply((T) targets[i]);
+            if (key == null) {
+                next[i] = -1;
+                continue;
+            }
+            Integer head = heads.put(key, i);
+            next[i] = head == null ? -1 : head;
+        }
+
+        Object[] matched = new Object[targets.length];
+        boolean[] hit = new boolean[targets.length];
+        for (R b : r) {
+            if (heads.isEmpty()) {
+                break;
+            }
+            M key = fr.apply(b);
+            if (key == null) {
+                continue;
+            }
+            //先到先得，匹配过的key直接移除
+            Integer head = heads.remove(key);
+            for (int i = head == null ? -1 : head; i >= 0; i = next[i]) {
+                matched[i] = b;
+                hit[i] = true;
+            }
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            if (hit[i]) {
+                fs.accept((T) targets[i], (R) matched[i]);
+            }
+        }
+    }
+
+    /**
+     * groupJoin的分组，assigned标记是否已经交给某个t
+     */
+    private static final class Group<R> {
+        private final List<R> rows = new ArrayList<>();
+
+        private boolean assigned;
+    }
+
+    /**
+     * 每个并行任务的数量，按并行度切成4倍的份数，方便窃取
+     */
+    private static int batchSize(int size, int parallelism) {
+        return Math.max(MIN_PARALLEL_BATCH, size / (Math.max(parallelism, 1) * 4) + 1);
+    }
+
+    /**
+     * 分治探测任务
+     */
+    private static class ProbeTask<T, R, M> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] targets;
+        private final int from;
+        private final int to;
+        private final int batch;
+        private final Function<T, M> ft;
+        private final Map<M, R> index;
+        private final BiConsumer<T, R> fs;
+
+        ProbeTask(T[] targets, int from, int to, int batch, Function<T, M> ft, Map<M, R> index, BiConsumer<T, R> fs) {
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.batch = batch;
+            this.ft = ft;
+            this.index = index;
+            this.fs = fs;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batch) {
+                probe(targets, from, to, ft, index, fs);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProbeTask<>(targets, from, mid, batch, ft, index, fs),
+                    new ProbeTask<>(targets, mid, to, batch, ft, index, fs));
+        }
+    }
+}
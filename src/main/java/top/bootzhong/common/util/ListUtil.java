@@ -1,11 +1,18 @@
 package top.bootzhong.common.util;
 
+import top.bootzhong.common.cache.LookupCache;
+
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 集合工具类
@@ -14,10 +21,15 @@ import java.util.stream.Collectors;
  * @date 2021/8/28
  */
 public class ListUtil {
+    /**
+     * 并行匹配的默认阈值，t少于这个数量时不并行
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
 
     /**
      * 匹配两个集合并设置 t是主体 r是副体， ft是t的匹配字段， fr是r的匹配字段， fs是匹配成功之后执行的操作
      * 为空的项不匹配
+     * 内部对较小的一方建哈希索引，不再嵌套循环，每个元素的key只取一次
      * @param t 设置的集合
      * @param ft t的匹配字段
      * @param r 资源集合
@@ -28,19 +40,126 @@ public class ListUtil {
      * @param <M> 匹配的项的类型
      */
     public static <T, R, M> void matchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T,R> fs){
-        for (T a:t){
-            for (R b:r){
-                if (ft.apply(a) != null && ft.apply(a).equals(fr.apply(b))){
-                    fs.accept(a, b);
-                    break;
-                }
+        HashJoin.join(t, r, ft, fr, fs);
+    }
+
+
+    /**
+     * 一对多匹配并设置，比如把订单明细设置到订单上
+     * r按fr分组一次，每个t设置自己key对应的列表，组内保持r的顺序，不再嵌套循环
+     * 为空的项不匹配，没有匹配上的t设置一个新的空ArrayList
+     * 同一个key有多个t时，每个t拿到的是各自的列表
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     * @apiNote 使用实例
+     *   matchAndSetList(orders, lines, Order::getId, OrderLine::getOrderId, Order::setLines);
+     */
+    public static <T, R, M> void matchAndSetList(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
+                                                 BiConsumer<T, List<R>> fs){
+        HashJoin.groupJoin(t, r, ft, fr, fs, false);
+    }
+
+    /**
+     * 一对多匹配并设置，规则同上
+     * @param immutableEmpty 为true时没有匹配上的t设置共享的不可变空列表（Collections.emptyList()），不再逐个创建
+     */
+    public static <T, R, M> void matchAndSetList(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
+                                                 BiConsumer<T, List<R>> fs, boolean immutableEmpty){
+        HashJoin.groupJoin(t, r, ft, fr, fs, immutableEmpty);
+    }
+
+    /**
+     * 匹配并设置，r是提前建好的有序索引，见sortedIndexByLong
+     * 匹配规则同matchAndSet，为空的项不匹配，r中重复的key在建索引时已经只保留第一个
+     * @param t 设置的集合
+     * @param ft t的匹配字段，Long、Integer等整数
+     * @param r 资源索引
+     * @param fs 设置的方法
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @apiNote 使用实例
+     *   private volatile SortedLongIndex<Comp> comps = ListUtil.sortedIndexByLong(compMapper.selectAll(), Comp::getCompId);
+     *   matchAndSet(aList, A::getCompId, comps, (a, comp) -> a.setCompName(comp.getCompName()));
+     */
+    public static <T, R> void matchAndSet(Collection<T> t, Function<T, ? extends Number> ft, SortedLongIndex<R> r, BiConsumer<T, R> fs){
+        if (t == null || r == null || r.isEmpty()){
+            return;
+        }
+        for (T a : t){
+            Number key = ft.apply(a);
+            if (key == null){
+                continue;
+            }
+            R b = r.get(key.longValue());
+            if (b != null){
+                fs.accept(a, b);
             }
         }
     }
 
+    /**
+     * 带缓存的查询并匹配设置，t是主体，r从缓存或者loader中取
+     * t的key去重后先查缓存，只有缓存中没有的key调用一次loader，查询结果放入缓存
+     * 匹配规则同matchAndSet，为空的项不匹配，loader返回的同一个key只取第一个
+     * @param t 设置的集合
+     * @param ft t的匹配字段
+     * @param cache 缓存，见LookupCacheManager
+     * @param loader 按缓存中没有的key查询r
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     * @apiNote 使用实例
+     *   matchAndSet(aList, A::getCompId, compCache, compMapper::selectByIds, Comp::getCompId,
+     *           (a, comp) -> a.setCompName(comp.getCompName()));
+     */
+    public static <T, R, M> void matchAndSet(Collection<T> t, Function<T, M> ft, LookupCache<M, R> cache,
+                                             Function<List<M>, ? extends Collection<R>> loader, Function<R, M> fr, BiConsumer<T, R> fs){
+        if (t == null || t.isEmpty()){
+            return;
+        }
+        List<M> keys = new ArrayList<>(t.size());
+        for (T a : t){
+            M key = ft.apply(a);
+            if (key != null){
+                keys.add(key);
+            }
+        }
+        Map<M, R> found = cache.getAll(keys, missing -> {
+            Collection<R> r = loader.apply(missing);
+            return r == null ? Collections.emptyMap() : HashJoin.index(r, fr);
+        });
+        if (!found.isEmpty()){
+            HashJoin.probe(t, ft, found, fs);
+        }
+    }
+
+    /**
+     * 批量查询并匹配设置，代替手写的 取key -> split -> 依次查询 -> matchAndSet
+     * key去重后分批查询，多个数据源、多个批次可以在线程池上同时查询，见Enricher
+     * @param t 设置的集合
+     * @param <T> 目标集合
+     * @return 配置数据源、批次大小、线程池之后调用run执行
+     * @apiNote 使用实例
+     *   enrich(orders)
+     *           .by(Order::getCustomerId, customerMapper::selectByIds, Customer::getId, (o, c) -> o.setCustomerName(c.getName()))
+     *           .executor(taskExecutor, 8)
+     *           .run();
+     */
+    public static <T> Enricher<T> enrich(Collection<T> t){
+        return new Enricher<>(t);
+    }
 
     /**
      * 匹配两个集合并设置 t是主体 r是资源， ft是t的匹配字段， fr是r的匹配字段， fs是匹配成功之后执行的操作 fsg是fs设置的字段来源
+     * 匹配规则同上
      * @param t 设置的集合
      * @param ft t的匹配字段
      * @param r 资源集合
@@ -54,16 +173,82 @@ public class ListUtil {
      */
     public static <T, R, M, S> void matchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
                                                 BiConsumer<T, S> fs, Function<R, S> fsr){
+        HashJoin.join(t, r, ft, fr, (a, b) -> fs.accept(a, fsr.apply(b)));
+    }
 
-        
-        for (T a:t){
-            for (R b:r){
-                if (ft.apply(a) != null && ft.apply(a).equals(fr.apply(b))){
-                    fs.accept(a, fsr.apply(b));
-                    break;
-                }
-            }
-        }
+    /**
+     * 并行匹配两个集合并设置，匹配结果和matchAndSet一致
+     * 使用ForkJoinPool.commonPool()，t少于DEFAULT_PARALLEL_THRESHOLD时不并行
+     * fs会被多个线程同时调用，但同一个t只会被调用一次
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     */
+    public static <T, R, M> void parallelMatchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T,R> fs){
+        parallelMatchAndSet(t, r, ft, fr, fs, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 并行匹配两个集合并设置，匹配结果和matchAndSet一致
+     * fs会被多个线程同时调用，但同一个t只会被调用一次
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param executor 执行的线程池，传ForkJoinPool时使用分治任务
+     * @param threshold t少于这个数量时不并行
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     */
+    public static <T, R, M> void parallelMatchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr, BiConsumer<T,R> fs,
+                                                     Executor executor, int threshold){
+        HashJoin.parallelJoin(t, r, ft, fr, fs, executor, threshold);
+    }
+
+    /**
+     * 并行匹配两个集合并设置，fsr是fs设置的字段来源
+     * 使用ForkJoinPool.commonPool()，t少于DEFAULT_PARALLEL_THRESHOLD时不并行
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param fsr 被设置的资源
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     * @param <S> 要设置的类型
+     */
+    public static <T, R, M, S> void parallelMatchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
+                                                        BiConsumer<T, S> fs, Function<R, S> fsr){
+        parallelMatchAndSet(t, r, ft, fr, fs, fsr, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 并行匹配两个集合并设置，fsr是fs设置的字段来源
+     * @param t 设置的集合
+     * @param r 资源集合
+     * @param ft t的匹配字段
+     * @param fr r的匹配字段
+     * @param fs 设置的方法
+     * @param fsr 被设置的资源
+     * @param executor 执行的线程池，传ForkJoinPool时使用分治任务
+     * @param threshold t少于这个数量时不并行
+     * @param <T> 目标集合
+     * @param <R> 筛选集合
+     * @param <M> 匹配的项的类型
+     * @param <S> 要设置的类型
+     */
+    public static <T, R, M, S> void parallelMatchAndSet(Collection<T> t, Collection<R> r, Function<T, M> ft, Function<R, M> fr,
+                                                        BiConsumer<T, S> fs, Function<R, S> fsr, Executor executor, int threshold){
+        HashJoin.parallelJoin(t, r, ft, fr, (a, b) -> fs.accept(a, fsr.apply(b)), executor, threshold);
     }
 
     /**
@@ -114,25 +299,20 @@ public class ListUtil {
 
     /**
      * 判断是否有重复的对象 判断条件为funs传递进来的属性
-     * WARNING!!! 不建议校验非基本类型数据，会有很大误差
+     * 直接用属性值本身的hashCode/equals比较，不会因为拼接产生误判（"1"+"23" 和 "12"+"3" 不再相同）
+     * 不传funs时，超过一个元素即视为重复
      * @param col 集合
      * @param funs 需要判断的属性
      * @param <T> 集合的类型
      * @return boolean
      */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
     public static <T> boolean hasDuplicate(Collection<T> col, Function<T, Object>... funs){
-        HashMap<String, String> map = new HashMap(funs.length);
-
+        CompositeKeySet<T> keys = new CompositeKeySet<>(funs, col.size());
         for (T c:col){
-            StringBuilder key = new StringBuilder();
-            for (Function<T, Object> f:funs){
-                key.append(f.apply(c));
-            }
-
-            if (map.get(key.toString()) != null){
+            if (!keys.add(c)){
                 return true;
-            } else {
-                map.put(key.toString(), "-1");
             }
         }
 
@@ -141,37 +321,246 @@ public class ListUtil {
 
     /**
      * 判断在集合中 指定的几个字段是否全部都相同
-     * WARNING!!! 不建议校验非基本类型数据，会有很大误差
+     * 每个元素只和第一个元素比较属性值，不额外建集合
      * @param col
      * @param funs
      * @param <T>
      * @return
      */
+    @SafeVarargs
     public static <T> boolean isUnique(Collection<T> col, Function<T, Object>... funs){
-        Set<String> set = new HashSet<>();
-        for (T c:col){
-            StringBuilder key = new StringBuilder();
-            for (Function<T, Object> f:funs){
-                key.append(f.apply(c));
+        Iterator<T> it = col.iterator();
+        if (!it.hasNext() || funs.length == 0){
+            return true;
+        }
+
+        T first = it.next();
+        if (funs.length == 1){
+            Function<T, Object> f = funs[0];
+            Object key = f.apply(first);
+            while (it.hasNext()){
+                if (!Objects.equals(key, f.apply(it.next()))){
+                    return false;
+                }
             }
+            return true;
+        }
 
-            set.add(key.toString());
-            if (set.size() > 1){
-                return false;
+        Object[] key = new Object[funs.length];
+        for (int i = 0; i < funs.length; i++){
+            key[i] = funs[i].apply(first);
+        }
+        while (it.hasNext()){
+            T c = it.next();
+            for (int i = 0; i < funs.length; i++){
+                if (!Objects.equals(key[i], funs[i].apply(c))){
+                    return false;
+                }
             }
         }
 
         return true;
     }
 
+    /**
+     * 按字段建索引，key 重复时保留第一个
+     * 为空的元素、为空的 key 跳过
+     * @param col 集合
+     * @param key 索引字段
+     * @param <T> 集合的类型
+     * @param <K> 索引字段的类型
+     * @return key -> 元素
+     */
+    public static <T, K> Map<K, T> index(Collection<T> col, Function<T, K> key){
+        Map<K, T> result = new HashMap<>(mapCapacity(col.size()));
+        for (T t : col){
+            if (t != null){
+                K k = key.apply(t);
+                if (k != null){
+                    result.putIfAbsent(k, t);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 long 字段建索引，key 重复时保留第一个，为空的元素跳过
+     * key 不装箱，内存占用不到 HashMap<Long, T> 的一半，见 LongObjectMap
+     * @param col 集合
+     * @param key 索引字段
+     * @param <T> 集合的类型
+     * @return key -> 元素
+     */
+    public static <T> LongObjectMap<T> indexByLong(Collection<T> col, ToLongFunction<T> key){
+        LongObjectMap<T> result = new LongObjectMap<>(col.size());
+        for (T t : col){
+            if (t != null){
+                result.putIfAbsent(key.applyAsLong(t), t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 int 字段建索引，同 indexByLong，key 按 long 保存
+     */
+    public static <T> LongObjectMap<T> indexByInt(Collection<T> col, ToIntFunction<T> key){
+        LongObjectMap<T> result = new LongObjectMap<>(col.size());
+        for (T t : col){
+            if (t != null){
+                result.putIfAbsent(key.applyAsInt(t), t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 long 字段建只读的有序索引，key 重复时保留第一个，为空的元素跳过
+     * key 排序后存在 long[] 中，内存比 HashMap<Long, T> 少得多，适合很少变化、查询很频繁的参考数据，见 SortedLongIndex
+     * @param col 集合
+     * @param key 索引字段
+     * @param <T> 集合的类型
+     * @return key -> 元素
+     */
+    public static <T> SortedLongIndex<T> sortedIndexByLong(Collection<T> col, ToLongFunction<T> key){
+        return SortedLongIndex.of(col, key);
+    }
+
+    /**
+     * 按 int 字段建只读的有序索引，同 sortedIndexByLong，key 按 long 保存
+     */
+    public static <T> SortedLongIndex<T> sortedIndexByInt(Collection<T> col, ToIntFunction<T> key){
+        return SortedLongIndex.of(col, key::applyAsInt);
+    }
+
+    /**
+     * 按字段分组，组内保持原来的顺序
+     * 为空的元素、为空的 key 跳过
+     * @param col 集合
+     * @param key 分组字段
+     * @param <T> 集合的类型
+     * @param <K> 分组字段的类型
+     * @return key -> 元素列表
+     */
+    public static <T, K> Map<K, List<T>> groupBy(Collection<T> col, Function<T, K> key){
+        Map<K, List<T>> result = new HashMap<>();
+        for (T t : col){
+            if (t != null){
+                K k = key.apply(t);
+                if (k != null){
+                    result.computeIfAbsent(k, x -> new ArrayList<>()).add(t);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 long 字段分组，组内保持原来的顺序，为空的元素跳过
+     * @param col 集合
+     * @param key 分组字段
+     * @param <T> 集合的类型
+     * @return key -> 元素列表
+     */
+    public static <T> LongObjectMap<List<T>> groupByLong(Collection<T> col, ToLongFunction<T> key){
+        LongObjectMap<List<T>> result = new LongObjectMap<>();
+        for (T t : col){
+            if (t != null){
+                result.computeIfAbsent(key.applyAsLong(t), x -> new ArrayList<>()).add(t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 int 字段分组，同 groupByLong，key 按 long 保存
+     */
+    public static <T> LongObjectMap<List<T>> groupByInt(Collection<T> col, ToIntFunction<T> key){
+        LongObjectMap<List<T>> result = new LongObjectMap<>();
+        for (T t : col){
+            if (t != null){
+                result.computeIfAbsent(key.applyAsInt(t), x -> new ArrayList<>()).add(t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按字段计数
+     * 为空的元素、为空的 key 跳过
+     * @param col 集合
+     * @param key 计数字段
+     * @param <T> 集合的类型
+     * @param <K> 计数字段的类型
+     * @return key -> 数量
+     */
+    public static <T, K> Map<K, Integer> countBy(Collection<T> col, Function<T, K> key){
+        Map<K, Integer> result = new HashMap<>();
+        for (T t : col){
+            if (t != null){
+                K k = key.apply(t);
+                if (k != null){
+                    result.merge(k, 1, Integer::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 long 字段计数，key、数量都不装箱，为空的元素跳过
+     * @param col 集合
+     * @param key 计数字段
+     * @param <T> 集合的类型
+     * @return key -> 数量
+     */
+    public static <T> LongIntMap countByLong(Collection<T> col, ToLongFunction<T> key){
+        LongIntMap result = new LongIntMap();
+        for (T t : col){
+            if (t != null){
+                result.addTo(key.applyAsLong(t), 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 int 字段计数，同 countByLong，key 按 long 保存
+     */
+    public static <T> LongIntMap countByInt(Collection<T> col, ToIntFunction<T> key){
+        LongIntMap result = new LongIntMap();
+        for (T t : col){
+            if (t != null){
+                result.addTo(key.applyAsInt(t), 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * n 个元素不扩容的 HashMap 初始容量
+     */
+    private static int mapCapacity(int n){
+        return n < 3 ? n + 1 : (int) (n / 0.75f + 1.0f);
+    }
+
     /**
      * 合并list
+     * 先算出总数量，结果只分配一次，不再反复扩容
      * @param ts
      * @param <T>
-     * @return
+     * @return 新的ArrayList
      */
+    @SafeVarargs
     public static <T> List<T> merge(List<? extends T> ...ts){
-        List<T> r = new ArrayList<>();
+        int size = 0;
+        for (List<? extends T> t : ts) {
+            if (t != null){
+                size += t.size();
+            }
+        }
+        List<T> r = new ArrayList<>(size);
         for (List<? extends T> t : ts) {
             if (!isEmpty(t)){
                 r.addAll(t);
@@ -180,6 +569,35 @@ public class ListUtil {
         return r;
     }
 
+    /**
+     * 合并list，返回首尾相连的只读视图，不复制元素
+     * 为空的list跳过，视图创建之后原来的list不能再增删元素
+     * 按下标取值需要二分查找所在的list，频繁按下标取值或者需要修改时用merge
+     * 所有list都是RandomAccess时视图才是RandomAccess
+     * @param ts
+     * @param <T>
+     * @return 只读视图
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> List<T> concat(List<? extends T> ...ts){
+        //复制传入的数组再往前压缩，运行时类型不变，不需要创建泛型数组；视图只读，不会写入其它类型
+        List<? extends T>[] parts = ts.clone();
+        int n = 0;
+        for (List<? extends T> t : ts) {
+            if (t != null && !t.isEmpty()){
+                parts[n++] = t;
+            }
+        }
+        if (n == 0){
+            return Collections.emptyList();
+        }
+        if (n == 1){
+            return Collections.unmodifiableList(parts[0]);
+        }
+        return Batches.concat(n == parts.length ? parts : Arrays.copyOf(parts, n));
+    }
+
     /**
      * 判断对象集合内对象的某属性是否为空
      * @param col 集合
@@ -203,16 +621,36 @@ public class ListUtil {
         return false;
     }
 
+    /**
+     * 集合为空，或者元素全是空
+     * 遇到第一个不为空的元素就返回，RandomAccess的list按下标遍历，不创建迭代器
+     * @param collection
+     * @return
+     */
     public static boolean isEmpty(Collection collection){
         if (collection == null || collection.isEmpty()){
             return true;
         }
         //如果全是空 也判断为空
-        if (collection.stream().allMatch(e -> e == null)){
+        if (collection instanceof RandomAccess && collection instanceof List){
+            List<?> list = (List<?>) collection;
+            for (int i = 0, n = list.size(); i < n; i++){
+                if (list.get(i) != null){
+                    return false;
+                }
+            }
             return true;
         }
-
-        return false;
+        //Set最多只有一个null
+        if (collection instanceof Set && collection.size() > 1){
+            return false;
+        }
+        for (Object e : collection){
+            if (e != null){
+                return false;
+            }
+        }
+        return true;
     }
 
     public static  <T> T findOne(Collection<T> list, Predicate<T> predicate){
@@ -229,23 +667,81 @@ public class ListUtil {
 
     /**
      * 把list分割成多批
+     * 一次生成所有批次，每批是subList视图，数量很大时用batches按需生成
      * @param tList
-     * @param batchSize
+     * @param batchSize 每批的数量，必须大于0
      * @return
      */
     public static <T> List<List<T>> split(List<T> tList, int batchSize){
-        int start = 0;
+        Batches.checkBatchSize(batchSize);
         int total = tList.size();
 
-        List<List<T>> result = new ArrayList<>();
-        while (start < total){
-            int endIndex = Math.min(start + batchSize, total);
-            result.add(tList.subList(start, endIndex));
-            start = start + batchSize;
+        int batches = Batches.batchCount(total, batchSize);
+        List<List<T>> result = new ArrayList<>(batches);
+        for (int i = 0; i < batches; i++){
+            int start = (int) ((long) i * batchSize);
+            result.add(tList.subList(start, start + Math.min(batchSize, total - start)));
         }
         return result;
     }
 
+    /**
+     * 把list分割成多批，遍历的时候才生成每一批
+     * RandomAccess的list每批是subList视图，其它list每批复制成新的ArrayList
+     * 遍历期间原来的list不能增删元素，list为空时没有批次
+     * @param tList
+     * @param batchSize 每批的数量，必须大于0
+     * @return 可以重复遍历，spliterator()可以切分给并行流
+     * @apiNote 使用实例
+     *   for (List<Long> batch : batches(ids, 1000)) {
+     *       mapper.deleteByIds(batch);
+     *   }
+     */
+    public static <T> Iterable<List<T>> batches(List<T> tList, int batchSize){
+        Batches.checkBatchSize(batchSize);
+        return new Batches.BatchIterable<>(tList, batchSize);
+    }
+
+    /**
+     * 把list分割成多批的流，规则同batches
+     * 需要并行时调用parallel()，按批次二分切分
+     * @param tList
+     * @param batchSize 每批的数量，必须大于0
+     * @return 顺序流
+     */
+    public static <T> Stream<List<T>> batchStream(List<T> tList, int batchSize){
+        Batches.checkBatchSize(batchSize);
+        return StreamSupport.stream(Batches.spliterator(tList, batchSize), false);
+    }
+
+    /**
+     * 分批执行，每批调用一次consumer，在调用线程中按顺序执行
+     * @param tList
+     * @param batchSize 每批的数量，必须大于0
+     * @param consumer 每批执行的操作
+     */
+    public static <T> void forEachBatch(List<T> tList, int batchSize, Consumer<? super List<T>> consumer){
+        Batches.checkBatchSize(batchSize);
+        Batches.spliterator(tList, batchSize).forEachRemaining(consumer);
+    }
+
+    /**
+     * 分批并行执行，最多maxConcurrency批同时执行，全部执行完才返回
+     * 调用线程也会执行批次，executor上最多同时有maxConcurrency - 1个任务
+     * 某一批抛出异常之后不再开始新的批次，等已经开始的批次结束后抛出第一个异常
+     * consumer有阻塞IO（比如写库）时不要用ForkJoinPool.commonPool()，传自己的线程池
+     * @param tList
+     * @param batchSize 每批的数量，必须大于0
+     * @param consumer 每批执行的操作，会被多个线程同时调用
+     * @param executor 执行的线程池
+     * @param maxConcurrency 最多同时执行的批次数量，小于等于1时在调用线程中按顺序执行
+     */
+    public static <T> void parallelForEachBatch(List<T> tList, int batchSize, Consumer<? super List<T>> consumer,
+                                                Executor executor, int maxConcurrency){
+        Batches.checkBatchSize(batchSize);
+        Batches.forEach(tList, batchSize, consumer, executor, maxConcurrency);
+    }
+
     public static  <T> void ifNotEmptyDo(List<T> dataList, Consumer<List<T>> consumer){
         if (!isEmpty(dataList)){
             consumer.accept(dataList);
@@ -253,15 +749,67 @@ public class ListUtil {
     }
 
     /**
-     * 去重
+     * 去重，保持原来的顺序，重复的只保留第一个
+     * 没有重复时直接返回dataList本身，有重复时返回新的ArrayList
      * @param dataList
      * @return
      */
-    public static List<String> distinct(List<String> dataList) {
+    public static <T> List<T> distinct(List<T> dataList) {
         if (isEmpty(dataList)){
             return dataList;
         }
-        return dataList.stream().distinct().collect(Collectors.toList());
+        return distinctBy(dataList, t -> t);
+    }
+
+    /**
+     * 按字段去重，保持原来的顺序，funs的值都相同的只保留第一个
+     * 直接用属性值本身的hashCode/equals比较，同hasDuplicate，去重过程中不为每个元素创建对象
+     * 没有重复时直接返回list本身，有重复时返回新的ArrayList，不传funs时只保留第一个元素
+     * @param list 集合
+     * @param funs 去重的属性
+     * @param <T> 集合的类型
+     * @return 去重之后的list
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> List<T> distinctBy(List<T> list, Function<T, Object>... funs){
+        if (list == null || list.size() < 2){
+            return list;
+        }
+        int n = list.size();
+        CompositeKeySet<T> keys = new CompositeKeySet<>(funs, n);
+        if (list instanceof RandomAccess){
+            for (int i = 0; i < n; i++){
+                if (!keys.add(list.get(i))){
+                    //第一个重复的位置，之前的原样保留
+                    List<T> result = new ArrayList<>(n - 1);
+                    result.addAll(list.subList(0, i));
+                    for (int j = i + 1; j < n; j++){
+                        T t = list.get(j);
+                        if (keys.add(t)){
+                            result.add(t);
+                        }
+                    }
+                    return result;
+                }
+            }
+            return list;
+        }
+
+        List<T> result = null;
+        int i = 0;
+        for (T t : list){
+            if (keys.add(t)){
+                if (result != null){
+                    result.add(t);
+                }
+            } else if (result == null){
+                result = new ArrayList<>(n - 1);
+                result.addAll(list.subList(0, i));
+            }
+            i++;
+        }
+        return result == null ? list : result;
     }
 
     /**
@@ -0,0 +1,167 @@
+package top.bootzhong.common.util;
+
+/**
+ * long 为 key、int 为 value 的 Map，用于计数
+ * 开放寻址，key、value 都不装箱，每个槽位 13 字节，负载因子 0.75
+ * 不支持删除，非线程安全
+ * @author bootzhong
+ */
+public final class LongIntMap {
+    private long[] keys;
+
+    private int[] values;
+
+    private boolean[] used;
+
+    private int size;
+
+    private int mask;
+
+    private int resizeAt;
+
+    public LongIntMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预计的元素数量，不超过这个数量时不扩容
+     */
+    public LongIntMap(int expectedSize) {
+        allocate(LongObjectMap.tableSize(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[slot(key)];
+    }
+
+    /**
+     * @return 不存在时返回0
+     */
+    public int get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(long key, int defaultValue) {
+        int i = slot(key);
+        return used[i] ? values[i] : defaultValue;
+    }
+
+    /**
+     * @return 原来的值，不存在时返回0
+     */
+    public int put(long key, int value) {
+        int i = slot(key);
+        if (used[i]) {
+            int old = values[i];
+            values[i] = value;
+            return old;
+        }
+        keys[i] = key;
+        values[i] = value;
+        used[i] = true;
+        added();
+        return 0;
+    }
+
+    /**
+     * 加上 delta，不存在时从0开始加
+     * @return 加完之后的值
+     */
+    public int addTo(long key, int delta) {
+        int i = slot(key);
+        if (used[i]) {
+            return values[i] += delta;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        used[i] = true;
+        added();
+        return delta;
+    }
+
+    /**
+     * 遍历，顺序不固定
+     */
+    public void forEach(LongIntConsumer consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return 所有 key，顺序不固定
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    private int slot(long key) {
+        long[] k = keys;
+        boolean[] u = used;
+        int i = LongObjectMap.hash(key) & mask;
+        while (u[i] && k[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void added() {
+        if (++size > resizeAt) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            allocate(oldUsed.length << 1);
+            for (int j = 0; j < oldUsed.length; j++) {
+                if (oldUsed[j]) {
+                    int i = LongObjectMap.hash(oldKeys[j]) & mask;
+                    while (used[i]) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                    used[i] = true;
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    /**
+     * 遍历 key、value
+     */
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,243 @@
+package top.bootzhong.common.util;
+
+import java.util.function.LongFunction;
+
+/**
+ * long 为 key 的 Map
+ * 开放寻址，key 存在 long[] 中，不装箱，没有 HashMap.Node，每个槽位 12 字节（压缩指针），负载因子 0.75
+ * value 不能为空，value 为空的槽位即空槽位
+ * 不支持删除，非线程安全
+ * @param <V> value 类型
+ * @author bootzhong
+ */
+public final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    private int mask;
+
+    private int resizeAt;
+
+    public LongObjectMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预计的元素数量，不超过这个数量时不扩容
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return values[slot(key)] != null;
+    }
+
+    /**
+     * @return 不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[slot(key)];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V v = get(key);
+        return v == null ? defaultValue : v;
+    }
+
+    /**
+     * @return 原来的值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        checkValue(value);
+        int i = slot(key);
+        Object old = values[i];
+        values[i] = value;
+        if (old == null) {
+            keys[i] = key;
+            added();
+        }
+        return (V) old;
+    }
+
+    /**
+     * @return 已经存在的值，不存在时放入 value 并返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(long key, V value) {
+        checkValue(value);
+        int i = slot(key);
+        Object old = values[i];
+        if (old == null) {
+            keys[i] = key;
+            values[i] = value;
+            added();
+        }
+        return (V) old;
+    }
+
+    /**
+     * 不存在时用 mapping 生成 value 放入
+     * @return 已经存在的值或者新放入的值
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        int i = slot(key);
+        Object v = values[i];
+        if (v == null) {
+            v = mapping.apply(key);
+            checkValue(v);
+            keys[i] = key;
+            values[i] = v;
+            added();
+        }
+        return (V) v;
+    }
+
+    /**
+     * 遍历，顺序不固定
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectConsumer<? super V> consumer) {
+        long[] k = keys;
+        Object[] v = values;
+        for (int i = 0; i < v.length; i++) {
+            if (v[i] != null) {
+                consumer.accept(k[i], (V) v[i]);
+            }
+        }
+    }
+
+    /**
+     * @return 所有 key，顺序不固定
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    /**
+     * key 所在的槽位，不存在时返回应该放入的空槽位
+     */
+    private int slot(long key) {
+        long[] k = keys;
+        Object[] v = values;
+        int i = hash(key) & mask;
+        while (v[i] != null && k[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void added() {
+        if (++size > resizeAt) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            allocate(oldValues.length << 1);
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    private static void checkValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value 不能为空");
+        }
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 负载因子 0.75，容量为 2 的幂
+     */
+    static int tableSize(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 4 / 3 + 1;
+        if (needed > (1 << 30)) {
+            return 1 << 30;
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongObjectMap) || ((LongObjectMap<?>) o).size != size) {
+            return false;
+        }
+        LongObjectMap<?> other = (LongObjectMap<?>) o;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && !values[i].equals(other.get(keys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                h += Long.hashCode(keys[i]) ^ values[i].hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 遍历 key、value
+     * @param <V> value 类型
+     */
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,83 @@
+package top.bootzhong.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 游标分页的游标编码
+ * 把最后一行的排序字段编码成不透明的字符串返回给前端，下一页请求时原样传回并解析
+ * 格式：每个字段为 长度:值，整体 base64url 编码；null 编码为 -1:
+ * @author bootzhong
+ */
+public final class PageCursor {
+    private PageCursor() {
+    }
+
+    /**
+     * 编码游标
+     * @param keys 排序字段的值，按 String.valueOf 保存
+     * @return 游标
+     */
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (Object key : keys) {
+            if (key == null) {
+                sb.append("-1:");
+                continue;
+            }
+            String value = String.valueOf(key);
+            sb.append(value.length()).append(':').append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     * @param cursor 游标
+     * @return 排序字段的值，游标为空时返回空数组
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static String[] decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new String[0];
+        }
+        String s = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        List<String> keys = new ArrayList<>();
+        int i = 0;
+        try {
+            while (i < s.length()) {
+                int colon = s.indexOf(':', i);
+                int length = Integer.parseInt(s.substring(i, colon));
+                if (length < 0) {
+                    keys.add(null);
+                    i = colon + 1;
+                } else {
+                    keys.add(s.substring(colon + 1, colon + 1 + length));
+                    i = colon + 1 + length;
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("游标格式不正确：" + cursor, e);
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * 解析只有一个数字字段的游标
+     * @param cursor 游标
+     * @return 字段值，游标为空时返回null
+     */
+    public static Long decodeLong(String cursor) {
+        String[] keys = decode(cursor);
+        if (keys.length == 0 || keys[0] == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(keys[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("游标格式不正确：" + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package top.bootzhong.common.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * long 为 key 的只读索引，用于很少变化、查询很频繁的参考数据
+ * key 排好序存在 long[] 中，value 按相同的下标存在 Object[] 中，每个元素 12 字节（压缩指针），没有空槽位
+ * 查询先按 key 的分布插值猜位置，并在另一侧放一个哨兵把范围两侧同时缩小，几次之后在剩下的小范围内二分查找
+ * key 连续时一次就能找到，随机分布时访问的内存集中在几个缓存行，分布很不均匀时退化为二分查找
+ * 和 HashMap<Long, V> 比内存少三分之二左右；id 连续时查询更快，随机分布时慢 2~3 倍，见 LookupBenchmark
+ * 建好之后不能修改，线程安全
+ * @param <V> value 类型
+ * @author bootzhong
+ */
+public final class SortedLongIndex<V> {
+    /**
+     * 插值查找的最多次数，之后二分查找，避免分布不均匀时退化成线性
+     */
+    private static final int MAX_INTERPOLATION_PROBES = 3;
+
+    /**
+     * 哨兵离插值位置的距离，为剩余范围的 1/64，至少 8
+     */
+    private static final int GUARD_SHIFT = 6;
+
+    private static final int MIN_GUARD = 8;
+
+    private static final SortedLongIndex<?> EMPTY = new SortedLongIndex<>(new long[0], new Object[0]);
+
+    private final long[] keys;
+
+    private final Object[] values;
+
+    private SortedLongIndex(long[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * 建索引，key 重复时保留第一个，为空的元素跳过
+     * 已经按 key 排好序（比如按主键查询出来的）时不再排序
+     * @param col 集合
+     * @param key 索引字段
+     * @param <V> 集合的类型
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> SortedLongIndex<V> of(Collection<V> col, ToLongFunction<? super V> key) {
+        if (col == null || col.isEmpty()) {
+            return (SortedLongIndex<V>) EMPTY;
+        }
+        Object[] items = new Object[col.size()];
+        long[] itemKeys = new long[items.length];
+        int n = 0;
+        boolean sorted = true;
+        for (V v : col) {
+            if (v != null) {
+                long k = key.applyAsLong(v);
+                sorted &= n == 0 || itemKeys[n - 1] < k;
+                items[n] = v;
+                itemKeys[n++] = k;
+            }
+        }
+        if (sorted) {
+            return n == 0 ? (SortedLongIndex<V>) EMPTY
+                    : new SortedLongIndex<>(Arrays.copyOf(itemKeys, n), Arrays.copyOf(items, n));
+        }
+
+        //排序、去重之后，按原来的顺序放入value，重复的key保留第一个
+        long[] keys = Arrays.copyOf(itemKeys, n);
+        Arrays.sort(keys);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || keys[unique - 1] != keys[i]) {
+                keys[unique++] = keys[i];
+            }
+        }
+        if (unique < n) {
+            keys = Arrays.copyOf(keys, unique);
+        }
+        Object[] values = new Object[unique];
+        for (int i = 0; i < n; i++) {
+            int p = Arrays.binarySearch(keys, itemKeys[i]);
+            if (values[p] == null) {
+                values[p] = items[i];
+            }
+        }
+        return new SortedLongIndex<>(keys, values);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return 不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V v = get(key);
+        return v == null ? defaultValue : v;
+    }
+
+    /**
+     * 按 key 从小到大遍历
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectMap.LongObjectConsumer<? super V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            consumer.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * @return 所有 key，从小到大
+     */
+    public long[] keys() {
+        return keys.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    /**
+     * @return key 的下标，不存在时返回-1
+     */
+    private int indexOf(long key) {
+        long[] k = keys;
+        int lo = 0;
+        int hi = k.length - 1;
+        if (hi < 0 || key < k[0] || key > k[hi]) {
+            return -1;
+        }
+        for (int probes = 0; probes < MAX_INTERPOLATION_PROBES && lo < hi; probes++) {
+            //插值猜位置，再在另一侧隔一段放一个哨兵，两侧同时收缩
+            int mid = lo + (int) (((double) key - k[lo]) / ((double) k[hi] - k[lo]) * (hi - lo));
+            mid = Math.max(lo, Math.min(hi, mid));
+            long m = k[mid];
+            if (m == key) {
+                return mid;
+            }
+            int guard = Math.max(MIN_GUARD, (hi - lo) >>> GUARD_SHIFT);
+            if (m < key) {
+                lo = mid + 1;
+                if (mid + guard < hi && k[mid + guard] >= key) {
+                    hi = mid + guard;
+                }
+            } else {
+                hi = mid - 1;
+                if (mid - guard > lo && k[mid - guard] <= key) {
+                    lo = mid - guard;
+                }
+            }
+            if (lo > hi || key < k[lo] || key > k[hi]) {
+                return -1;
+            }
+        }
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long m = k[mid];
+            if (m < key) {
+                lo = mid + 1;
+            } else if (m > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -6,9 +6,13 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
+import java.util.stream.IntStream;
 
 /**
  * 时间工具类
+ * 格式化对象按线程缓存，见 DateFormats
+ * 天编号、月编号直接计算，见 DayNumbers
  * @author bootzhong
  */
 public class TimeUtil {
@@ -23,7 +27,16 @@ public class TimeUtil {
      * @return
      */
     public static Integer toDay(Date date){
-        return toNumber(date, DAY_NUM_FORMAT);
+        return toDayInt(date);
+    }
+
+    /**
+     * 转换成天编号，不装箱
+     * @param date
+     * @return
+     */
+    public static int toDayInt(Date date){
+        return DayNumbers.toDay(date.getTime());
     }
 
     /**
@@ -32,7 +45,7 @@ public class TimeUtil {
      * @return
      */
     public static Integer toDay(String date){
-        return toNumber(parseDay(date), DAY_NUM_FORMAT);
+        return toDayInt(parseDay(date));
     }
 
     /**
@@ -41,18 +54,16 @@ public class TimeUtil {
      * @return
      */
     public static Integer toMon(Date date){
-        return toNumber(date, MONTH_NUM_FORMAT);
+        return toMonInt(date);
     }
 
     /**
-     * 转行成整数类型如 20210809
+     * 转行成月编号，不装箱
      * @param date
      * @return
      */
-    private static Integer toNumber(Date date, String format){
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        String result = sdf.format(date);
-        return Integer.valueOf(result);
+    public static int toMonInt(Date date){
+        return DayNumbers.toMon(date.getTime());
     }
 
     /**
@@ -97,8 +108,7 @@ public class TimeUtil {
      * @return
      */
     public static String toString(Date date, String format){
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        return sdf.format(date);
+        return DateFormats.get(format).format(date);
     }
 
     /**
@@ -107,7 +117,10 @@ public class TimeUtil {
      * @return
      */
     public static Date parseMon(Integer mon) {
-        return parse(mon, MONTH_NUM_FORMAT);
+        if (mon == null){
+            return parse(mon, MONTH_NUM_FORMAT);
+        }
+        return new Date(DayNumbers.parseMon(mon));
     }
 
     /**
@@ -125,7 +138,10 @@ public class TimeUtil {
      * @return
      */
     public static Date parseDay(Integer day) {
-        return parse(day, DAY_NUM_FORMAT);
+        if (day == null){
+            return parse(day, DAY_NUM_FORMAT);
+        }
+        return new Date(DayNumbers.parseDay(day));
     }
 
     /**
@@ -161,8 +177,7 @@ public class TimeUtil {
             throw new IllegalArgumentException(source + "时间格式不符合：" + format);
         }
 
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(format);
-        return simpleDateFormat.parse(source);
+        return DateFormats.get(format).parse(source);
     }
 
     /**
@@ -170,7 +185,25 @@ public class TimeUtil {
      * @return
      */
     public static Date nextMonthFirstDate() {
+        long now = System.currentTimeMillis();
+        CalendarTable table = CalendarTable.current();
+        if (table != null){
+            TimeZone zone = TimeZone.getDefault();
+            long epochDay = DayNumbers.localEpochDay(now, zone);
+            if (table.containsEpochDay(epochDay)){
+                int nextMon = DayNumbers.nextMon(table.monOfEpochDay(epochDay));
+                if (table.containsMon(nextMon)){
+                    //和Calendar一致，只清到秒，保留毫秒
+                    long millis = DayNumbers.localToUtc(table.firstEpochDayOfMonth(nextMon) * DayNumbers.MILLIS_PER_DAY + Math.floorMod(now, 1000L), zone);
+                    if (millis != Long.MIN_VALUE){
+                        return new Date(millis);
+                    }
+                }
+            }
+        }
+
         Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
         calendar.set(Calendar.DAY_OF_MONTH, 1);
         calendar.add(Calendar.MONTH, 1); //自然月加一天
         calendar.set(Calendar.HOUR_OF_DAY, 0);
@@ -192,6 +225,14 @@ public class TimeUtil {
     }
 
     public static int getDaysOfMonth(Date date) {
+        CalendarTable table = CalendarTable.current();
+        if (table != null){
+            int mon = DayNumbers.toMon(date.getTime());
+            if (table.containsMon(mon)){
+                return table.lengthOfMonth(mon);
+            }
+        }
+
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
         return calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
@@ -254,6 +295,11 @@ public class TimeUtil {
      * @return
      */
     public static Date lastDateOfMonth(Date month){
+        Date result = fromTable(month, CalendarTable::lastEpochDayOfMonth);
+        if (result != null){
+            return result;
+        }
+
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(month);
 
@@ -304,6 +350,11 @@ public class TimeUtil {
      * @return
      */
     public static Date firstDayOfMonth(Date date){
+        Date result = fromTable(date, CalendarTable::firstEpochDayOfMonth);
+        if (result != null){
+            return result;
+        }
+
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
 
@@ -336,6 +387,11 @@ public class TimeUtil {
      * @return
      */
     public static Date firstDateOfYear(Date date){
+        Date result = fromTable(date, (table, mon) -> table.firstEpochDayOfMonth(mon / 100 * 100 + 1));
+        if (result != null){
+            return result;
+        }
+
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
 
@@ -344,6 +400,37 @@ public class TimeUtil {
         return calendar.getTime();
     }
 
+    /**
+     * [startDay, endDay] 之间的每一天（天编号），包含两端，可用于并行流
+     * 如 dayRange(firstDayIntegerOfMonth(date), lastDayOfMonth(date))
+     * @param startDay
+     * @param endDay
+     * @return
+     */
+    public static IntStream dayRange(int startDay, int endDay){
+        return DayNumbers.days(startDay, endDay);
+    }
+
+    /**
+     * [startMon, endMon] 之间的每个月（月编号），包含两端，可用于并行流
+     * @param startMon
+     * @param endMon
+     * @return
+     */
+    public static IntStream monthRange(int startMon, int endMon){
+        return DayNumbers.months(startMon, endMon);
+    }
+
+    /**
+     * 两个天编号相差的天数
+     * @param startDay
+     * @param endDay
+     * @return
+     */
+    public static int daysBetween(int startDay, int endDay){
+        return DayNumbers.daysBetween(startDay, endDay);
+    }
+
     /**
      * 判断日期格式
      * @param startDate
@@ -352,8 +439,8 @@ public class TimeUtil {
      * @return
      */
     public static boolean matchAny(String startDate, String format1, String format2) {
-        SimpleDateFormat f1 = new SimpleDateFormat(format1);
-        SimpleDateFormat f2 = new SimpleDateFormat(format2);
+        SimpleDateFormat f1 = DateFormats.get(format1);
+        SimpleDateFormat f2 = DateFormats.get(format2);
 
         try {
             f1.parse(startDate);
@@ -367,4 +454,35 @@ public class TimeUtil {
 
         return false;
     }
+
+    /**
+     * 查日历表得到同一时刻在另一天的时间，保留本地时分秒
+     * 不在表范围内或者无法确定时返回null，交给Calendar计算
+     * @param date 时间
+     * @param targetDay 根据日历表和月编号得到目标 epochDay
+     * @return
+     */
+    private static Date fromTable(Date date, TableDay targetDay){
+        CalendarTable table = CalendarTable.current();
+        if (table == null){
+            return null;
+        }
+        long time = date.getTime();
+        TimeZone zone = TimeZone.getDefault();
+        long epochDay = DayNumbers.localEpochDay(time, zone);
+        if (!table.containsEpochDay(epochDay)){
+            return null;
+        }
+        long target = targetDay.epochDay(table, table.monOfEpochDay(epochDay));
+        long millis = DayNumbers.withLocalEpochDay(time, target, zone);
+        return millis == Long.MIN_VALUE ? null : new Date(millis);
+    }
+
+    /**
+     * 根据日历表和月编号得到目标 epochDay
+     */
+    @FunctionalInterface
+    private interface TableDay {
+        long epochDay(CalendarTable table, int mon);
+    }
 }
@@ -0,0 +1,220 @@
+package top.bootzhong.common.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LookupCache 的查询失败、淘汰、空值、并发查询同一个 key
+ * 时间用手动推进的 ticker
+ * @author bootzhong
+ */
+class LookupCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadsOnlyMissingKeysAndExpiresAfterTtl() {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofSeconds(10));
+        List<List<Integer>> calls = new ArrayList<>();
+        Function<List<Integer>, Map<Integer, String>> loader = keys -> {
+            calls.add(new ArrayList<>(keys));
+            return values(keys);
+        };
+
+        assertEquals(values(Arrays.asList(1, 2)), cache.getAll(Arrays.asList(1, 2, 2, null), loader));
+        assertEquals(values(Arrays.asList(1, 2, 3)), cache.getAll(Arrays.asList(1, 2, 3), loader));
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), calls);
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertNull(cache.getIfPresent(1));
+        cache.getAll(Arrays.asList(1, 2, 3), loader);
+        assertEquals(Arrays.asList(1, 2, 3), calls.get(2));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(6, stats.getMissCount());
+        assertEquals(3, stats.getLoadSuccessCount());
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        Function<Integer, String> loader = key -> {
+            calls.incrementAndGet();
+            return key % 2 == 0 ? "v" + key : null;
+        };
+
+        assertNull(cache.get(1, loader));
+        assertNull(cache.get(1, loader));
+        assertEquals("v2", cache.get(2, loader));
+        assertEquals("v2", cache.get(2, loader));
+        assertEquals(3, calls.get());
+        assertEquals(1, cache.size());
+
+        //loader 返回 null 的 map，同样不缓存
+        assertTrue(cache.getAll(Arrays.asList(3, 5), keys -> null).isEmpty());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void loaderFailureIsRethrownAndNotCached() {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofMinutes(1));
+        IllegalStateException boom = new IllegalStateException("db down");
+        assertSame(boom, assertThrows(IllegalStateException.class, () -> cache.getAll(Arrays.asList(1, 2), keys -> {
+            throw boom;
+        })));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().getLoadFailureCount());
+
+        //下次重新查询
+        assertEquals(values(Arrays.asList(1, 2)), cache.getAll(Arrays.asList(1, 2), LookupCacheTest::values));
+    }
+
+    @Test
+    void waitersSeeTheLoaderFailure() throws Exception {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException boom = new IllegalStateException("db down");
+
+        Future<?> first = executor.submit(() -> cache.get(1, key -> {
+            loading.countDown();
+            await(release);
+            throw boom;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = executor.submit(() -> cache.get(1, key -> "unexpected"));
+        //waiter 找到正在查询的 entry 时记一次命中，之后等待
+        awaitHits(cache, 1);
+        release.countDown();
+
+        assertSame(boom, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(boom, assertThrows(ExecutionException.class, waiter::get).getCause());
+        assertEquals("v1", cache.get(1, key -> "v" + key));
+    }
+
+    @Test
+    void concurrentLoadsOfTheSameKeyCallLoaderOnce() throws Exception {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = executor.submit(() -> cache.get(7, key -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "v" + key;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        List<Future<String>> others = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            others.add(executor.submit(() -> cache.get(7, key -> {
+                calls.incrementAndGet();
+                return "other";
+            })));
+        }
+        awaitHits(cache, 3);
+        release.countDown();
+
+        assertEquals("v7", first.get(5, TimeUnit.SECONDS));
+        for (Future<String> other : others) {
+            assertEquals("v7", other.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void evictsExpiredFirstThenOldest() {
+        LookupCache<Integer, String> cache = cache(10, Duration.ofSeconds(10));
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "v" + i);
+            now.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+        assertEquals(10, cache.size());
+
+        //0 已经过期，清理之后仍然超过 9 个，再淘汰最早写入的 1
+        cache.put(10, "v10");
+        assertEquals(9, cache.size());
+        assertNull(cache.getIfPresent(0));
+        assertNull(cache.getIfPresent(1));
+        for (int i = 2; i <= 10; i++) {
+            assertEquals("v" + i, cache.getIfPresent(i));
+        }
+        assertEquals(2, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void invalidateDuringLoadDropsTheResult() throws Exception {
+        LookupCache<Integer, String> cache = cache(100, Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> cache.get(1, key -> {
+            loading.countDown();
+            await(release);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidate(1);
+        release.countDown();
+
+        assertEquals("stale", first.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getIfPresent(1));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new LookupCache<>("x", 0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new LookupCache<>("x", 10, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new LookupCache<>("x", 10, null));
+    }
+
+    private LookupCache<Integer, String> cache(long maximumSize, Duration ttl) {
+        return new LookupCache<>("test", maximumSize, ttl, now::get);
+    }
+
+    private static Map<Integer, String> values(List<Integer> keys) {
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            if (key != null) {
+                values.put(key, "v" + key);
+            }
+        }
+        return values;
+    }
+
+    private static void awaitHits(LookupCache<?, ?> cache, long hits) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().getHitCount() < hits) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
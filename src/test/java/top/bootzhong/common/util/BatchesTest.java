@@ -0,0 +1,69 @@
+package top.bootzhong.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ListUtil.parallelForEachBatch / Batches.run 的并发执行
+ * @author bootzhong
+ */
+class BatchesTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void eachBatchRunsOnce() {
+        List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        AtomicIntegerArray seen = new AtomicIntegerArray(list.size());
+        ListUtil.parallelForEachBatch(list, 7, batch -> batch.forEach(seen::incrementAndGet), executor, 4);
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(1, seen.get(i), "index " + i);
+        }
+    }
+
+    /**
+     * 线程池的线程都在调用 parallelForEachBatch，提交的任务只能排队，调用线程不能等排队的任务
+     */
+    @Test
+    void nestedInSamePoolDoesNotDeadlock() throws Exception {
+        List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Future<Integer>> outer = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            outer.add(executor.submit(() -> {
+                AtomicIntegerArray seen = new AtomicIntegerArray(list.size());
+                ListUtil.parallelForEachBatch(list, 10, batch -> batch.forEach(seen::incrementAndGet), executor, 4);
+                int sum = 0;
+                for (int j = 0; j < seen.length(); j++) {
+                    sum += seen.get(j);
+                }
+                return sum;
+            }));
+        }
+        for (Future<Integer> f : outer) {
+            assertEquals(list.size(), f.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void firstFailureIsRethrown() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        assertSame(boom, assertThrows(IllegalStateException.class, () -> Batches.run(100, i -> {
+            if (i == 50) {
+                throw boom;
+            }
+        }, executor, 4)));
+    }
+}
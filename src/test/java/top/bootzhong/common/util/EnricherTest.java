@@ -0,0 +1,222 @@
+package top.bootzhong.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enricher 用内存中的 loader 代替查库
+ * @author bootzhong
+ */
+class EnricherTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void enrichesFromSeveralSourcesInBatches() {
+        List<Order> orders = orders(1000);
+        FakeTable customers = new FakeTable("c");
+        FakeTable skus = new FakeTable("s");
+
+        ListUtil.enrich(orders)
+                .by(Order::getCustomerId, customers::selectByIds, Row::getId, Order::setCustomer)
+                .by(Order::getSkuId, skus::selectByIds, Row::getId, Order::setSku)
+                .batchSize(30)
+                .executor(executor, 3)
+                .run();
+
+        for (Order o : orders) {
+            assertEquals(o.customerId == null ? null : "c" + o.customerId, name(o.customer));
+            assertEquals("s" + o.skuId, name(o.sku));
+        }
+        //key去重之后分批：customer 100 个，sku 50 个
+        assertEquals(4, customers.calls.get());
+        assertEquals(2, skus.calls.get());
+        assertTrue(customers.batchSizes.stream().allMatch(n -> n <= 30));
+        assertEquals(100, customers.loadedKeys.size());
+    }
+
+    @Test
+    void firstMatchWinsAndForeignRowsAreIgnored() {
+        List<Order> orders = orders(10);
+        ListUtil.enrich(orders)
+                .by(Order::getSkuId, ids -> {
+                    List<Row> rows = new ArrayList<>();
+                    //不属于本批的key、重复的key、空的行
+                    rows.add(new Row(-1L, "foreign"));
+                    rows.add(null);
+                    for (Long id : ids) {
+                        rows.add(new Row(id, "first" + id));
+                        rows.add(new Row(id, "second" + id));
+                    }
+                    return rows;
+                }, Row::getId, Order::setSku)
+                .run();
+        for (Order o : orders) {
+            assertEquals("first" + o.skuId, name(o.sku));
+        }
+    }
+
+    @Test
+    void emptyOrNullResultLeavesTargetsUnset() {
+        List<Order> orders = orders(10);
+        ListUtil.enrich(orders)
+                .by(Order::getSkuId, ids -> null, Row::getId, Order::setSku)
+                .by(Order::getCustomerId, ids -> Collections.emptyList(), Row::getId, Order::setCustomer)
+                .run();
+        assertTrue(orders.stream().allMatch(o -> o.sku == null && o.customer == null));
+    }
+
+    @Test
+    void loaderFailureIsRethrown() {
+        IllegalStateException boom = new IllegalStateException("db down");
+        FakeTable skus = new FakeTable("s");
+        Enricher<Order> enricher = ListUtil.enrich(orders(1000))
+                .by(Order::getSkuId, skus::selectByIds, Row::getId, Order::setSku)
+                .<Row, Long>by(Order::getCustomerId, ids -> {
+                    throw boom;
+                }, Row::getId, Order::setCustomer)
+                .batchSize(10)
+                .executor(executor, 4);
+        assertSame(boom, assertThrows(IllegalStateException.class, enricher::run));
+    }
+
+    /**
+     * 在同一个线程池的任务里 enrich（比如 @Async 方法用 applicationTaskExecutor），不能互相等待卡死
+     */
+    @Test
+    void enrichInsideTasksOfTheSamePool() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<Order>>> outer = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                outer.add(pool.submit(() -> {
+                    List<Order> orders = orders(1000);
+                    FakeTable skus = new FakeTable("s");
+                    ListUtil.enrich(orders)
+                            .by(Order::getSkuId, skus::selectByIds, Row::getId, Order::setSku)
+                            .batchSize(5)
+                            .executor(pool, 8)
+                            .run();
+                    return orders;
+                }));
+            }
+            for (Future<List<Order>> f : outer) {
+                for (Order o : f.get(5, TimeUnit.SECONDS)) {
+                    assertEquals("s" + o.skuId, name(o.sku));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void nothingToLoad() {
+        FakeTable skus = new FakeTable("s");
+        ListUtil.enrich(Collections.<Order>emptyList()).by(Order::getSkuId, skus::selectByIds, Row::getId, Order::setSku).run();
+        ListUtil.enrich(Collections.singletonList(new Order(null, null)))
+                .by(Order::getSkuId, skus::selectByIds, Row::getId, Order::setSku).run();
+        assertEquals(0, skus.calls.get());
+    }
+
+    private static List<Order> orders(int size) {
+        List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order(i % 11 == 10 ? null : (long) (i % 100), (long) (i % 50)));
+        }
+        return orders;
+    }
+
+    private static String name(Row row) {
+        return row == null ? null : row.name;
+    }
+
+    /**
+     * 按 id 查询的表，名称为前缀 + id，乱序返回，查不到负数 id
+     */
+    private static class FakeTable {
+        private final String prefix;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        private final Set<Long> loadedKeys = ConcurrentHashMap.newKeySet();
+
+        FakeTable(String prefix) {
+            this.prefix = prefix;
+        }
+
+        List<Row> selectByIds(List<Long> ids) {
+            calls.incrementAndGet();
+            batchSizes.add(ids.size());
+            for (Long id : ids) {
+                assertTrue(loadedKeys.add(id), "key " + id + " 重复查询");
+            }
+            List<Row> rows = ids.stream().filter(id -> id >= 0).map(id -> new Row(id, prefix + id)).collect(Collectors.toList());
+            Collections.reverse(rows);
+            return rows;
+        }
+    }
+
+    private static class Order {
+        private final Long customerId;
+
+        private final Long skuId;
+
+        private volatile Row customer;
+
+        private volatile Row sku;
+
+        Order(Long customerId, Long skuId) {
+            this.customerId = customerId;
+            this.skuId = skuId;
+        }
+
+        Long getCustomerId() {
+            return customerId;
+        }
+
+        Long getSkuId() {
+            return skuId;
+        }
+
+        void setCustomer(Row customer) {
+            this.customer = customer;
+        }
+
+        void setSku(Row sku) {
+            this.sku = sku;
+        }
+    }
+
+    private static class Row {
+        private final Long id;
+
+        private final String name;
+
+        Row(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package top.bootzhong.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HashJoin.parallelJoin 的匹配结果和异常传播
+ * @author bootzhong
+ */
+class HashJoinTest {
+    private static final int SIZE = 10000;
+
+    private final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        forkJoinPool.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void parallelJoinMatchesLikeJoin() {
+        List<Item> expected = items();
+        List<Item> actual = items();
+        HashJoin.join(expected, resources(), Item::getKey, Resource::getKey, Item::setResource);
+        HashJoin.parallelJoin(actual, resources(), Item::getKey, Resource::getKey, Item::setResource, forkJoinPool, 100);
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(String.valueOf(expected.get(i).getResource()), String.valueOf(actual.get(i).getResource()), "index " + i);
+        }
+    }
+
+    @Test
+    void forkJoinPoolRethrowsRuntimeException() {
+        assertThrows(IllegalStateException.class, () -> HashJoin.parallelJoin(items(), resources(), Item::getKey,
+                Resource::getKey, failAt(SIZE / 2 + 1, new IllegalStateException("boom")), forkJoinPool, 100));
+    }
+
+    @Test
+    void executorRethrowsOriginalRuntimeException() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> HashJoin.parallelJoin(items(),
+                resources(), Item::getKey, Resource::getKey, failAt(SIZE - 1, boom), executor, 100));
+        assertSame(boom, thrown);
+    }
+
+    @Test
+    void executorRethrowsError() {
+        AssertionError error = new AssertionError("fatal");
+        AssertionError thrown = assertThrows(AssertionError.class, () -> HashJoin.parallelJoin(items(),
+                resources(), Item::getKey, Resource::getKey, failAt(1, error), executor, 100));
+        assertSame(error, thrown);
+    }
+
+    @Test
+    void belowThresholdRethrowsInCallerThread() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> HashJoin.parallelJoin(items(),
+                resources(), Item::getKey, Resource::getKey, failAt(1, boom), executor, SIZE + 1));
+        assertSame(boom, thrown);
+    }
+
+    /**
+     * key匹配上时抛出异常，key需要有资源
+     */
+    private static BiConsumer<Item, Resource> failAt(int key, Throwable e) {
+        return (item, resource) -> {
+            if (item.getKey() == key) {
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+                throw (RuntimeException) e;
+            }
+            item.setResource(resource);
+        };
+    }
+
+    private static List<Item> items() {
+        List<Item> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            //每隔7个一个没有key的
+            items.add(new Item(i % 7 == 6 ? null : i));
+        }
+        return items;
+    }
+
+    private static List<Resource> resources() {
+        List<Resource> resources = new ArrayList<>(SIZE);
+        //只有奇数key有资源
+        for (int i = SIZE - 1; i >= 0; i -= 2) {
+            resources.add(new Resource(i, "r" + i));
+        }
+        //重复的key，保留第一个
+        resources.add(new Resource(SIZE - 1, "duplicate"));
+        return resources;
+    }
+
+    private static class Item {
+        private final Integer key;
+
+        private Resource resource;
+
+        Item(Integer key) {
+            this.key = key;
+        }
+
+        Integer getKey() {
+            return key;
+        }
+
+        Resource getResource() {
+            return resource;
+        }
+
+        void setResource(Resource resource) {
+            this.resource = resource;
+        }
+    }
+
+    private static class Resource {
+        private final Integer key;
+
+        private final String name;
+
+        Resource(Integer key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+
+        Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}